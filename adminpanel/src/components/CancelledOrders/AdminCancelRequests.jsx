@@ -2,20 +2,15 @@ import React, { useEffect, useState } from "react";
 // ✅ use global axios instance
 import { toast } from "react-toastify";
 import api from "../../services/CustomAxiosInstance";
+import { fetchAllOrders } from "../../services/OrderService";
 
 const AdminCancelRequests = () => {
   const [requests, setRequests] = useState([]);
 
-  // ✅ Fetch all orders
+  // ✅ Fetch every CANCEL_REQUESTED order (the server filters, we follow the pages)
   const fetchRequests = async () => {
     try {
-      const res = await api.get("/api/orders/all");
-
-      // filter orders with CANCEL_REQUESTED
-      const cancelRequests = res.data.filter(
-        (order) => order.orderStatus === "CANCEL_REQUESTED"
-      );
-      setRequests(cancelRequests);
+      setRequests(await fetchAllOrders({ status: "CANCEL_REQUESTED" }));
     } catch (err) {
       toast.error("Failed to load cancel requests");
     }
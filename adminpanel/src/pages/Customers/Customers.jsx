@@ -6,8 +6,7 @@ import { useNavigate } from "react-router-dom";
 import "./Customers.css";
 import { assets } from "../../assets/assets";
 
-// ✅ use your global axios instance
-import api from "../../services/CustomAxiosInstance";
+import { fetchAllOrders } from "../../services/OrderService";
 
 const fileUrl = "/mnt/data/1296c9f8-bfee-4238-83fb-decf9a43d322.png";
 
@@ -32,12 +31,11 @@ const Customers = () => {
   const [page, setPage] = useState(1);
   const [pageSize, setPageSize] = useState(10);
 
-  // 🚀 Fetch all orders using axios instance
+  // 🚀 Fetch every order (page by page), so no customer is missing
   useEffect(() => {
     const fetchOrders = async () => {
       try {
-        const res = await api.get("/api/orders/all");
-        setOrders(res.data || []);
+        setOrders(await fetchAllOrders());
       } catch (err) {
         console.error("Failed to fetch orders:", err);
       } finally {
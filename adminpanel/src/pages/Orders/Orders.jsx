@@ -1,10 +1,10 @@
-import React, { useEffect, useState, useMemo } from "react";
+import React, { useEffect, useState, useMemo, useRef } from "react";
 import { assets } from "../../assets/assets";
 import * as XLSX from "xlsx";
 import { saveAs } from "file-saver";
 import "./Orders.css";
 import { useNavigate } from "react-router-dom";
-import customAxios from "../../services/CustomAxiosInstance";
+import { fetchOrdersPage, fetchAllOrders } from "../../services/OrderService";
 
 /* ------------------ DATE FORMAT ------------------ */
 const formatDate = (dateStr) => {
@@ -18,6 +18,12 @@ const formatDate = (dateStr) => {
   )} ${pad(d.getHours())}:${pad(d.getMinutes())}:${pad(d.getSeconds())}`;
 };
 
+// yyyy-MM-dd of a local date, as the server's from/to filters expect
+const isoDay = (d) => {
+  const pad = (n) => (n < 10 ? `0${n}` : n);
+  return `${d.getFullYear()}-${pad(d.getMonth() + 1)}-${pad(d.getDate())}`;
+};
+
 /* ------------------ SKELETON COMPONENTS ------------------ */
 const FilterSkeleton = () => (
   <div className="d-flex flex-wrap gap-2 mb-4">
@@ -54,6 +60,7 @@ const Orders = () => {
   const navigate = useNavigate();
   const [data, setData] = useState([]);
   const [loading, setLoading] = useState(true);
+  const [nextCursor, setNextCursor] = useState(null);
 
   const [statusFilter, setStatusFilter] = useState("All");
   const [searchTerm, setSearchTerm] = useState("");
@@ -62,80 +69,79 @@ const Orders = () => {
   const [dateFilter, setDateFilter] = useState("All");
   const [customDate, setCustomDate] = useState("");
 
+  /* ------------------ SERVER FILTERS ------------------ */
+  // status and date are filtered by the server, so every page (and the export) honours them
+  const serverFilters = useMemo(() => {
+    const filters = {};
+    if (statusFilter !== "All") filters.status = statusFilter;
+
+    let day = null;
+    if (dateFilter === "Today") day = isoDay(new Date());
+    if (dateFilter === "Yesterday") day = isoDay(new Date(Date.now() - 86400000));
+    if (dateFilter === "Custom" && customDate) day = customDate;
+    if (day) {
+      filters.from = day;
+      filters.to = day;
+    }
+    return filters;
+  }, [statusFilter, dateFilter, customDate]);
+
   /* ------------------ FETCH ORDERS ------------------ */
-  const fetchOrders = async () => {
+  // newest first, one page at a time; "Load more" follows nextCursor
+  const latestRequest = useRef(0);
+  const fetchOrders = async (cursor) => {
+    const request = ++latestRequest.current;
     try {
-      setLoading(true);
-      const response = await customAxios.get("/api/orders/all");
-      setData((response.data || []).reverse());
+      if (!cursor) setLoading(true);
+      const page = await fetchOrdersPage(serverFilters, cursor, 50);
+      if (request !== latestRequest.current) return; // the filters changed meanwhile
+      setData((prev) => (cursor ? [...prev, ...(page.orders || [])] : page.orders || []));
+      setNextCursor(page.hasMore ? page.nextCursor : null);
     } catch (error) {
       console.error("Error fetching orders:", error);
     } finally {
-      setLoading(false);
+      if (request === latestRequest.current) setLoading(false);
     }
   };
 
   useEffect(() => {
     fetchOrders();
-  }, []);
+  }, [serverFilters]);
 
   /* ------------------ FILTER LOGIC ------------------ */
+  // search and price have no server filter; they narrow the rows already fetched
+  const matchesLocalFilters = (order) => {
+    if (!order) return false;
+
+    if (minPrice && order.amount < parseFloat(minPrice)) return false;
+    if (maxPrice && order.amount > parseFloat(maxPrice)) return false;
+
+    const term = searchTerm.toLowerCase();
+    if (term) {
+      const items = (order.orderedItems || [])
+        .map((i) => i?.name || "")
+        .join(",");
+
+      const matchText = `
+        ${order.userAddress || ""}
+        ${order.phoneNumber || ""}
+        ${items}
+        ${order.id || ""}
+        ${order.email || ""}
+        ${order.userName || ""}
+      `.toLowerCase();
+
+      return matchText.includes(term);
+    }
+
+    return true;
+  };
+
   const filteredOrders = useMemo(() => {
     return (data || [])
-      .filter((order) => {
-        if (!order) return false;
-
-        if (dateFilter !== "All" && order.createdDate) {
-          const orderDate = new Date(order.createdDate).toDateString();
-          const today = new Date().toDateString();
-          const yesterday = new Date(Date.now() - 86400000).toDateString();
-
-          if (dateFilter === "Today" && orderDate !== today) return false;
-          if (dateFilter === "Yesterday" && orderDate !== yesterday) return false;
-          if (
-            dateFilter === "Custom" &&
-            customDate &&
-            orderDate !== new Date(customDate).toDateString()
-          )
-            return false;
-        }
-
-        if (statusFilter !== "All" && order.orderStatus !== statusFilter)
-          return false;
-
-        if (minPrice && order.amount < parseFloat(minPrice)) return false;
-        if (maxPrice && order.amount > parseFloat(maxPrice)) return false;
-
-        const term = searchTerm.toLowerCase();
-        if (term) {
-          const items = (order.orderedItems || [])
-            .map((i) => i?.name || "")
-            .join(",");
-
-          const matchText = `
-            ${order.userAddress || ""}
-            ${order.phoneNumber || ""}
-            ${items}
-            ${order.id || ""}
-            ${order.email || ""}
-            ${order.userName || ""}
-          `.toLowerCase();
-
-          return matchText.includes(term);
-        }
-
-        return true;
-      })
+      .filter(matchesLocalFilters)
       .sort((a, b) => new Date(b.createdDate) - new Date(a.createdDate));
-  }, [
-    data,
-    statusFilter,
-    searchTerm,
-    minPrice,
-    maxPrice,
-    dateFilter,
-    customDate,
-  ]);
+  }, [data, searchTerm, minPrice, maxPrice]);
 
   /* ------------------ STATUS DISPLAY ------------------ */
   const getDisplayName = (status) => {
@@ -152,9 +158,18 @@ const Orders = () => {
   };
 
   /* ------------------ EXPORT EXCEL ------------------ */
-  const exportToExcel = () => {
+  // every matching order, not just the pages loaded so far
+  const exportToExcel = async () => {
+    let orders;
+    try {
+      orders = (await fetchAllOrders(serverFilters)).filter(matchesLocalFilters);
+    } catch (error) {
+      console.error("Error exporting orders:", error);
+      return;
+    }
+
     const worksheet = XLSX.utils.json_to_sheet(
-      filteredOrders.map((o) => ({
+      orders.map((o) => ({
         OrderID: o.id,
         Phone: o.phoneNumber,
         Email: o.email,
@@ -185,7 +200,7 @@ const Orders = () => {
     <div className="container">
 
       {/* FILTER PANEL */}
-      {loading ? (
+      {loading && data.length === 0 ? (
         <FilterSkeleton />
       ) : (
         <div className="d-flex flex-wrap align-items-center gap-2 mt-4 mb-4">
@@ -322,6 +337,17 @@ const Orders = () => {
               )}
           </tbody>
         </table>
+
+        {!loading && nextCursor && (
+          <div className="text-center">
+            <button
+              className="btn btn-outline-secondary btn-sm"
+              onClick={() => fetchOrders(nextCursor)}
+            >
+              Load more
+            </button>
+          </div>
+        )}
       </div>
     </div>
   );
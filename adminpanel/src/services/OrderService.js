@@ -0,0 +1,22 @@
+import api from "./CustomAxiosInstance";
+
+const ORDERS_API = "/api/orders/all";
+const PAGE_SIZE = 100; // the server's largest page
+
+// one page of the admin order listing; filters: status, paymentStatus, from, to, courier, coupon
+export const fetchOrdersPage = async (filters = {}, cursor, size = PAGE_SIZE) => {
+  const res = await api.get(ORDERS_API, { params: { ...filters, cursor, size } });
+  return res.data || {};
+};
+
+// every order matching the filters, following nextCursor to the last page
+export const fetchAllOrders = async (filters = {}) => {
+  const orders = [];
+  let cursor;
+  do {
+    const page = await fetchOrdersPage(filters, cursor);
+    orders.push(...(page.orders || []));
+    cursor = page.hasMore ? page.nextCursor : null;
+  } while (cursor);
+  return orders;
+};
@@ -8,20 +8,19 @@ export default function HubOrders() {
   const [loading, setLoading] = useState(true);
   const navigate = useNavigate();
 
-  const normalize = (s) => s?.trim()?.toUpperCase();
-
+  // the app has no hub of its own: newest ORDER_AT_HUB and OUT_FOR_DELIVERY orders,
+  // filtered by the server rather than picked out of /all here
   const load = async () => {
     try {
-      const res = await api.get("/api/orders/all");
-      const all = res.data || [];
-
-      const filtered = all.filter(
-        (o) =>
-          normalize(o.orderStatus) === "ORDER_AT_HUB" ||
-          normalize(o.orderStatus) === "OUT_FOR_DELIVERY"
+      const pages = await Promise.all(
+        ["ORDER_AT_HUB", "OUT_FOR_DELIVERY"].map((status) =>
+          api.get("/api/orders/all", { params: { status, size: 50 } })
+        )
       );
-
-      setOrders(filtered);
+      const merged = pages
+        .flatMap((res) => res.data?.orders || [])
+        .sort((a, b) => new Date(b.createdDate) - new Date(a.createdDate));
+      setOrders(merged);
     } catch (err) {
       toast.error("Failed to load hub orders");
     } finally {
@@ -54,8 +54,8 @@ const { setActiveOrderId } = useContext(GpsContext);
   const load = async () => {
     setLoading(true);
     try {
-      const res = await api.get("/api/orders/all");
-      const all = res.data || [];
+      const res = await api.get("/api/orders/all", { params: { courier: partnerName, size: 100 } });
+      const all = res.data?.orders || [];
       const assigned = partnerName ? all.filter((o) => o.courierName === partnerName) : [];
       setOrders(assigned);
     } catch (err) {
@@ -17,11 +17,9 @@ export default function DeliveryDashboard() {
         setOrders([]);
         return;
       }
-      // backend: get assigned orders by filtering /api/orders/all
-      const res = await api.get("/api/orders/all");
-      const all = res.data || [];
-      const assigned = all.filter(o => o.assignedDeliveryBoyId === deliveryBoy.id || o.courierName === deliveryBoy.name || o.assignedDeliveryBoyId === deliveryBoy.id);
-      setOrders(assigned);
+      // backend: open orders assigned to this delivery boy
+      const res = await api.get(`/api/orders/partner/queue/${deliveryBoy.id}`);
+      setOrders(res.data || []);
     } catch (err) {
       console.error(err);
       toast.error("Failed to load orders");
@@ -8,14 +8,19 @@ export default function HubDashboard() {
   const { hub } = useContext(HubContext);
   const navigate = useNavigate();
   const [orders, setOrders] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
   const [loading, setLoading] = useState(true);
 
-  const load = async () => {
-    setLoading(true);
+  // this hub's queue (ORDER_AT_HUB and OUT_FOR_DELIVERY), newest first; "Load more" follows nextCursor
+  const load = async (cursor) => {
+    if (!cursor) setLoading(true);
     try {
-      // backend provides getOrdersForHub: GET /hub/order/orders?hubName=NAME
-      const res = await api.get(`/hub/order/orders?hubName=${encodeURIComponent(hub?.hubName || "")}`);
-      setOrders(res.data || []);
+      const res = await api.get(`/api/orders/hub/queue/${encodeURIComponent(hub?.hubName || "")}`, {
+        params: { cursor, size: 50 },
+      });
+      const page = res.data || {};
+      setOrders((prev) => (cursor ? [...prev, ...(page.orders || [])] : page.orders || []));
+      setNextCursor(page.hasMore ? page.nextCursor : null);
     } catch (err) {
       console.error(err);
       toast.error("Failed to load hub orders");
@@ -34,7 +39,7 @@ export default function HubDashboard() {
       <div className="bg-white rounded shadow p-4">
         <div className="flex justify-between items-center mb-3">
           <h2 className="font-semibold">Orders at Hub</h2>
-          <button onClick={load} className="px-3 py-1 border rounded">Refresh</button>
+          <button onClick={() => load()} className="px-3 py-1 border rounded">Refresh</button>
         </div>
 
         {loading ? <div className="p-4">Loading…</div> : orders.length === 0 ? (
@@ -63,6 +68,12 @@ export default function HubDashboard() {
             </tbody>
           </table>
         )}
+
+        {!loading && nextCursor && (
+          <div className="text-center mt-3">
+            <button onClick={() => load(nextCursor)} className="px-3 py-1 border rounded">Load more</button>
+          </div>
+        )}
       </div>
     </div>
   );
@@ -26,11 +26,12 @@ export default function HubOrderDetails() {
 
   useEffect(() => { load(); }, [id]);
 
-  const addHubUpdate = async () => {
-    if (!msg.trim()) return toast.error("Enter message");
+  // logs the arrival in hubHistory and moves the order into this hub's queue (ORDER_AT_HUB);
+  // without a message the server writes "Order reached <hub> hub"
+  const recordArrival = async () => {
     try {
-      await api.post(`/hub/order/${id}/update`, { hubName: hub.hubName, staffName: hub.staffName, message: msg });
-      toast.success("Hub update added");
+      await api.post(`/api/orders/hub/arrival/${id}`, { hubName: hub.hubName, staffName: hub.staffName, message: msg.trim() });
+      toast.success("Arrival recorded");
       setMsg("");
       await load();
     } catch (err) {
@@ -57,10 +58,10 @@ export default function HubOrderDetails() {
           <p><strong>Phone:</strong> {order.phoneNumber}</p>
 
           <div className="mt-4">
-            <h4 className="font-semibold mb-2">Add Hub Update</h4>
-            <textarea className="w-full border p-2 rounded mb-2" rows="3" value={msg} onChange={(e) => setMsg(e.target.value)} />
+            <h4 className="font-semibold mb-2">Record Arrival at {hub?.hubName}</h4>
+            <textarea className="w-full border p-2 rounded mb-2" rows="3" placeholder="Message (optional)" value={msg} onChange={(e) => setMsg(e.target.value)} />
             <div className="flex gap-2">
-              <button onClick={addHubUpdate} className="px-3 py-1 bg-indigo-600 text-white rounded">Add Update</button>
+              <button onClick={recordArrival} className="px-3 py-1 bg-indigo-600 text-white rounded">Mark Arrived</button>
             </div>
           </div>
         </div>
@@ -34,6 +34,11 @@ public class SecurityConfig {
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
+                        // full-collection repair jobs: not for anonymous callers, unlike the rest of /api/admin
+                        .requestMatchers(
+                                "/api/admin/catalog/ratings/**",
+                                "/api/admin/catalog/order-counts/**"
+                        ).hasRole("ADMIN")
                         .requestMatchers(
                                 "/api/register",
                                 "/api/login",
@@ -91,7 +96,8 @@ public class SecurityConfig {
                 "http://localhost:5175",
                 "http://localhost:5176"
         ));
-        config.setAllowedHeaders(List.of("Authorization", "Content-Type"));
+        config.setAllowedHeaders(List.of("Authorization", "Content-Type", "If-None-Match", "Idempotency-Key"));
+        config.setExposedHeaders(List.of("ETag", "Idempotent-Replayed"));
         config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", config);
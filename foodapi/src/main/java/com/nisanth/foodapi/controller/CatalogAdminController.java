@@ -0,0 +1,108 @@
+package com.nisanth.foodapi.controller;
+
+import com.nisanth.foodapi.cron.BestSellerRankingJob;
+import com.nisanth.foodapi.cron.OrderCountRebuildJob;
+import com.nisanth.foodapi.cron.RatingBackfillJob;
+import com.nisanth.foodapi.service.CategoryService;
+import com.nisanth.foodapi.service.cache.ResponseCache;
+import com.nisanth.foodapi.service.catalog.CatalogCache;
+import com.nisanth.foodapi.service.catalog.FoodSearchIndex;
+import com.nisanth.foodapi.service.inventory.HotStockCounters;
+import com.nisanth.foodapi.service.inventory.StockHoldService;
+import com.nisanth.foodapi.service.inventory.StockLogWriter;
+import com.nisanth.foodapi.service.payment.PaymentGateway;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/catalog")
+@RequiredArgsConstructor
+public class CatalogAdminController {
+
+    private final CatalogCache catalogCache;
+    private final FoodSearchIndex foodSearchIndex;
+    private final CategoryService categoryService;
+    private final ResponseCache responseCache;
+    private final StockHoldService stockHoldService;
+    private final HotStockCounters hotStockCounters;
+    private final StockLogWriter stockLogWriter;
+    private final PaymentGateway paymentGateway;
+    private final RatingBackfillJob ratingBackfillJob;
+    private final OrderCountRebuildJob orderCountRebuildJob;
+    private final BestSellerRankingJob bestSellerRankingJob;
+
+    // hit / miss / rebuild counters of the in-memory catalog snapshot
+    @GetMapping("/stats")
+    public Map<String, Object> getStats() {
+        return catalogCache.stats();
+    }
+
+    // size of the in-memory search index
+    @GetMapping("/search/stats")
+    public Map<String, Object> getSearchStats() {
+        return foodSearchIndex.stats();
+    }
+
+    // hit / miss / 304 counters of the serialized response cache
+    @GetMapping("/response-cache/stats")
+    public Map<String, Object> getResponseCacheStats() {
+        return responseCache.stats();
+    }
+
+    // open stock holds of unpaid orders waiting on the expiry wheel
+    @GetMapping("/stock-holds/stats")
+    public Map<String, Object> getStockHoldStats() {
+        return stockHoldService.stats();
+    }
+
+    // foods served from in-memory stock counters on this instance
+    @GetMapping("/hot-stock/stats")
+    public Map<String, Object> getHotStockStats() {
+        return hotStockCounters.stats();
+    }
+
+    // queue depth, lag and drop counters of the background stock-log writer
+    @GetMapping("/stock-log/stats")
+    public Map<String, Object> getStockLogStats() {
+        return stockLogWriter.stats();
+    }
+
+    // breaker state and timeout / rejection counters of the payment gateway
+    @GetMapping("/payment-gateway/stats")
+    public Map<String, Object> getPaymentGatewayStats() {
+        return paymentGateway.stats();
+    }
+
+    // force a full rebuild on the next storefront read
+    @PostMapping("/rebuild")
+    public ResponseEntity<String> rebuild() {
+        catalogCache.invalidateAll();
+        foodSearchIndex.invalidate();
+        categoryService.invalidateFoodCounts();
+        return ResponseEntity.ok("Catalog rebuild scheduled");
+    }
+
+    // recompute rating aggregates on every food from the reviews collection (ADMIN only, see SecurityConfig)
+    @PostMapping("/ratings/backfill")
+    public ResponseEntity<String> backfillRatings() {
+        int foods = ratingBackfillJob.backfill();
+        return ResponseEntity.ok("Rating aggregates corrected on " + foods + " foods");
+    }
+
+    // recompute per-food order counters from the orders collection (ADMIN only, see SecurityConfig)
+    @PostMapping("/order-counts/rebuild")
+    public ResponseEntity<String> rebuildOrderCounts() {
+        int foods = orderCountRebuildJob.rebuild();
+        return ResponseEntity.ok("Order counters corrected on " + foods + " foods");
+    }
+
+    // re-rank best sellers now instead of waiting for the next scheduled run
+    @PostMapping("/best-sellers/rank")
+    public ResponseEntity<String> rankBestSellers() {
+        int changed = bestSellerRankingJob.rank();
+        return ResponseEntity.ok("Best-seller flag changed on " + changed + " foods");
+    }
+}
@@ -5,10 +5,14 @@ import com.nisanth.foodapi.entity.FoodEntity;
 import com.nisanth.foodapi.repository.FoodRepository;
 import com.nisanth.foodapi.repository.offers.ComboRepository;
 import com.nisanth.foodapi.service.FoodService;
+import com.nisanth.foodapi.service.cache.ResponseCache;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.HashMap;
@@ -28,6 +32,11 @@ public class ComboController {
     @Autowired
     private FoodRepository foodRepository;
 
+    @Autowired
+    private ResponseCache responseCache;
+
+    private static final Duration ACTIVE_COMBOS_MAX_AGE = Duration.ofMinutes(1);
+
     // ✅ GET ALL
     @GetMapping
     public List<ComboEntity> getAllCombos() {
@@ -51,7 +60,9 @@ public class ComboController {
             String imageUrl = fileUploadService.uploadFile(image);
             combo.setImageUrl(imageUrl);
         }
-        return comboRepository.save(combo);
+        ComboEntity saved = comboRepository.save(combo);
+        responseCache.invalidate(ResponseCache.ACTIVE_COMBOS);
+        return saved;
     }
 
     // ✅ UPDATE WITH IMAGE
@@ -67,36 +78,55 @@ public class ComboController {
             String imageUrl = fileUploadService.uploadFile(image);
             combo.setImageUrl(imageUrl);
         }
-        return comboRepository.save(combo);
+        ComboEntity saved = comboRepository.save(combo);
+        responseCache.invalidate(ResponseCache.ACTIVE_COMBOS);
+        return saved;
     }
 
     // ✅ DELETE
     @DeleteMapping("/{id}")
     public void deleteCombo(@PathVariable String id) {
         comboRepository.deleteById(id);
+        responseCache.invalidate(ResponseCache.ACTIVE_COMBOS);
     }
 
     // ✅ ACTIVE COMBOS (for slider)
     @GetMapping("/active")
-    public List<Map<String, Object>> getActiveCombos() {
-        LocalDateTime now = LocalDateTime.now();
-
-        return comboRepository
-                .findByActiveTrueAndStartTimeBeforeAndEndTimeAfter(now, now)
-                .stream()
-                .map(combo -> {
-                    Map<String, Object> res = new HashMap<>();
-                    res.put("id", combo.getId());
-                    res.put("name", combo.getName());
-                    res.put("comboPrice", combo.getComboPrice());
-                    res.put("imageUrl", combo.getImageUrl());
-
-                    res.put("startTime", combo.getStartTime());
-                    res.put("endTime", combo.getEndTime());
-                    res.put("serverTime", LocalDateTime.now());
-                    return res;
-                })
-                .toList();
+    public ResponseEntity<byte[]> getActiveCombos(HttpServletRequest request) {
+        return responseCache.serveLoaded(ResponseCache.ACTIVE_COMBOS, request, () -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<ComboEntity> combos = comboRepository.findByActiveTrue();
+
+            // cached until the next combo starts or ends; the body carries
+            // serverTime, so never keep it longer than a minute either
+            LocalDateTime validUntil = now.plus(ACTIVE_COMBOS_MAX_AGE);
+            for (ComboEntity combo : combos) {
+                for (LocalDateTime t : new LocalDateTime[]{combo.getStartTime(), combo.getEndTime()}) {
+                    if (t != null && t.isAfter(now) && t.isBefore(validUntil)) validUntil = t;
+                }
+            }
+
+            List<Map<String, Object>> active = combos.stream()
+                    .filter(combo -> combo.getStartTime() != null && combo.getStartTime().isBefore(now)
+                            && combo.getEndTime() != null && combo.getEndTime().isAfter(now))
+                    .map(combo -> toActiveCombo(combo, now))
+                    .toList();
+
+            return new ResponseCache.Loaded(active, validUntil);
+        });
+    }
+
+    private Map<String, Object> toActiveCombo(ComboEntity combo, LocalDateTime now) {
+        Map<String, Object> res = new HashMap<>();
+        res.put("id", combo.getId());
+        res.put("name", combo.getName());
+        res.put("comboPrice", combo.getComboPrice());
+        res.put("imageUrl", combo.getImageUrl());
+
+        res.put("startTime", combo.getStartTime());
+        res.put("endTime", combo.getEndTime());
+        res.put("serverTime", now);
+        return res;
     }
 
     @GetMapping("/{id}/details")
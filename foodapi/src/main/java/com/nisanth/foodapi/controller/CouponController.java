@@ -3,7 +3,10 @@ package com.nisanth.foodapi.controller;
 import com.nisanth.foodapi.entity.CouponEntity;
 import com.nisanth.foodapi.repository.offers.CouponRepository;
 import com.nisanth.foodapi.service.FoodService;
+import com.nisanth.foodapi.service.cache.ResponseCache;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -22,6 +25,9 @@ public class CouponController {
     @Autowired
     private FoodService fileUploadService;
 
+    @Autowired
+    private ResponseCache responseCache;
+
     // ✅ GET ALL
     @GetMapping
     public List<CouponEntity> getAllCoupons() {
@@ -44,7 +50,9 @@ public class CouponController {
             String imageUrl = fileUploadService.uploadFile(image);
             coupon.setImageUrl(imageUrl);
         }
-        return couponRepository.save(coupon);
+        CouponEntity saved = couponRepository.save(coupon);
+        responseCache.invalidate(ResponseCache.ACTIVE_COUPONS);
+        return saved;
     }
 
     // ✅ UPDATE WITH IMAGE
@@ -61,19 +69,22 @@ public class CouponController {
             coupon.setImageUrl(imageUrl);
         }
 
-        return couponRepository.save(coupon);
+        CouponEntity saved = couponRepository.save(coupon);
+        responseCache.invalidate(ResponseCache.ACTIVE_COUPONS);
+        return saved;
     }
 
     // ✅ DELETE
     @DeleteMapping("/{id}")
     public void delete(@PathVariable String id) {
         couponRepository.deleteById(id);
+        responseCache.invalidate(ResponseCache.ACTIVE_COUPONS);
     }
 
     // ✅ ACTIVE COUPONS (for slider)
     @GetMapping("/active")
-    public List<CouponEntity> getActiveCoupons() {
-        return couponRepository.findByActiveTrue();
+    public ResponseEntity<byte[]> getActiveCoupons(HttpServletRequest request) {
+        return responseCache.serve(ResponseCache.ACTIVE_COUPONS, request, couponRepository::findByActiveTrue);
     }
 
     @PostMapping("/apply")
@@ -4,7 +4,12 @@ import com.nisanth.foodapi.entity.FlashSaleEntity;
 import com.nisanth.foodapi.entity.FoodEntity;
 import com.nisanth.foodapi.repository.FoodRepository;
 import com.nisanth.foodapi.repository.offers.FlashSaleRepository;
+import com.nisanth.foodapi.service.cache.ResponseCache;
+import com.nisanth.foodapi.service.catalog.CatalogCache;
+import com.nisanth.foodapi.service.catalog.FlashSaleIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
@@ -20,6 +25,15 @@ public class FlashSaleController {
     @Autowired
     private FoodRepository foodRepository;
 
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private FlashSaleIndex flashSaleIndex;
+
+    @Autowired
+    private ResponseCache responseCache;
+
     // 🔹 GET ALL (ADMIN)
     @GetMapping
     public List<FlashSaleEntity> getAllFlashSales() {
@@ -28,10 +42,14 @@ public class FlashSaleController {
 
     // 🔹 GET ACTIVE (PUBLIC / ADMIN)
     @GetMapping("/active")
-    public List<FlashSaleEntity> getActiveFlashSales() {
-        LocalDateTime now = LocalDateTime.now();
-        return flashSaleRepository
-                .findByActiveTrueAndStartTimeBeforeAndEndTimeAfter(now, now);
+    public ResponseEntity<byte[]> getActiveFlashSales(HttpServletRequest request) {
+        return responseCache.serveLoaded(ResponseCache.ACTIVE_FLASH_SALES, request, () -> {
+            LocalDateTime now = LocalDateTime.now();
+            // the list changes by itself when a sale starts or ends
+            return new ResponseCache.Loaded(
+                    flashSaleIndex.activeSales(now),
+                    flashSaleIndex.nextTransition(now));
+        });
     }
 
     // 🔹 CREATE
@@ -44,7 +62,11 @@ public class FlashSaleController {
         // ✅ SET FOOD NAME HERE
         flashSale.setFoodName(food.getName());
 
-        return flashSaleRepository.save(flashSale);
+        FlashSaleEntity saved = flashSaleRepository.save(flashSale);
+        flashSaleIndex.put(saved);
+        responseCache.invalidate(ResponseCache.ACTIVE_FLASH_SALES);
+        catalogCache.invalidateFood(saved.getFoodId());
+        return saved;
     }
 
     // 🔹 UPDATE
@@ -56,6 +78,9 @@ public class FlashSaleController {
         FlashSaleEntity existing = flashSaleRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Flash sale not found"));
 
+        // the sale may move to another food: refresh both cards
+        String previousFoodId = existing.getFoodId();
+
         existing.setFoodId(updated.getFoodId());
         existing.setFoodName(updated.getFoodName());
         existing.setSalePrice(updated.getSalePrice());
@@ -63,12 +88,22 @@ public class FlashSaleController {
         existing.setEndTime(updated.getEndTime());
         existing.setActive(updated.isActive());
 
-        return flashSaleRepository.save(existing);
+        FlashSaleEntity saved = flashSaleRepository.save(existing);
+        flashSaleIndex.put(saved);
+        responseCache.invalidate(ResponseCache.ACTIVE_FLASH_SALES);
+        catalogCache.invalidateFood(previousFoodId);
+        catalogCache.invalidateFood(saved.getFoodId());
+        return saved;
     }
 
     // 🔹 DELETE
     @DeleteMapping("/{id}")
     public void delete(@PathVariable String id) {
-        flashSaleRepository.deleteById(id);
+        flashSaleRepository.findById(id).ifPresent(fs -> {
+            flashSaleRepository.deleteById(id);
+            flashSaleIndex.remove(id);
+            responseCache.invalidate(ResponseCache.ACTIVE_FLASH_SALES);
+            catalogCache.invalidateFood(fs.getFoodId());
+        });
     }
 }
@@ -2,10 +2,11 @@ package com.nisanth.foodapi.controller;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.nisanth.foodapi.entity.Category;
 import com.nisanth.foodapi.io.food.FoodRequest;
 import com.nisanth.foodapi.io.food.FoodResponse;
 import com.nisanth.foodapi.service.FoodService;
+import com.nisanth.foodapi.service.cache.ResponseCache;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
@@ -26,6 +27,9 @@ public class FoodController {
     @Autowired
     private  FoodService foodService;
 
+    @Autowired
+    private ResponseCache responseCache;
+
 
     // Build Add Food Rest API
     @PostMapping
@@ -120,8 +124,8 @@ public class FoodController {
     }
 
     @GetMapping("/categories")
-    public List<Category> getCategories() {
-        return foodService.getCategories();
+    public ResponseEntity<byte[]> getCategories(HttpServletRequest request) {
+        return responseCache.serve(ResponseCache.FOOD_CATEGORIES, request, foodService::getCategories);
     }
 
     // ----------------- NEW endpoints for stock management -----------------
@@ -148,6 +152,17 @@ public class FoodController {
         return ResponseEntity.ok("Stock set to " + value);
     }
 
+    /**
+     * Serve reservations of a flash-sale item from in-memory counters.
+     * Example: PUT /api/foods/{id}/stock/hot?enabled=true
+     */
+    @PutMapping("/{id}/stock/hot")
+    public ResponseEntity<String> setHotStock(@PathVariable String id,
+                                              @RequestParam boolean enabled) {
+        foodService.setHotStock(id, enabled);
+        return ResponseEntity.ok("Hot stock " + (enabled ? "enabled" : "disabled"));
+    }
+
 
     @GetMapping("/best-sellers")
     public List<FoodResponse> bestSellers() {
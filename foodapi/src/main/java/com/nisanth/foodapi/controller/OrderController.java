@@ -2,20 +2,28 @@ package com.nisanth.foodapi.controller;
 
 import com.nisanth.foodapi.entity.OrderEntity;
 import com.nisanth.foodapi.enumeration.OrderStatus;
-import com.nisanth.foodapi.io.util.DeliveryMessage;
+import com.nisanth.foodapi.io.order.DeliveryTask;
+import com.nisanth.foodapi.io.order.OrderFilter;
+import com.nisanth.foodapi.io.order.OrderPage;
 import com.nisanth.foodapi.io.order.OrderRequest;
 import com.nisanth.foodapi.io.order.OrderResponse;
 import com.nisanth.foodapi.repository.OrderRepository;
 import com.nisanth.foodapi.service.CourierService;
 import com.nisanth.foodapi.service.OrderService;
 import com.nisanth.foodapi.service.SmsService;
-import com.razorpay.RazorpayException;
+import com.nisanth.foodapi.service.idempotency.IdempotencyService;
+import com.nisanth.foodapi.service.order.OrderMutationService;
+import com.nisanth.foodapi.service.outbox.OutboxService;
+import com.nisanth.foodapi.service.timeline.OrderTimelineService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
+import java.time.LocalDate;
 import java.util.*;
 
 @RestController
@@ -31,18 +39,40 @@ public class OrderController {
     private final CourierService courierServiceAdmin;
 
     private final OrderRepository orderRepository;
+    private final IdempotencyService idempotencyService;
+    private final OutboxService outboxService;
+    private final OrderTimelineService orderTimelineService;
+    private final OrderMutationService orderMutationService;
+
     // ✅ Create order and initiate Razorpay payment
+    // (a retry with the same Idempotency-Key gets the first order back instead of a second one)
     @PostMapping("/create")
-    public ResponseEntity<OrderResponse> createOrderWithPayment(@RequestBody OrderRequest request) throws RazorpayException {
-        OrderResponse response = orderService.createOrderWithPayment(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    public ResponseEntity<?> createOrderWithPayment(@RequestBody OrderRequest request,
+                                                    @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute("orders:create", idempotencyKey, request, () ->
+                ResponseEntity.status(HttpStatus.CREATED).body(orderService.createOrderWithPayment(request)));
     }
 
     // ✅ Verify Razorpay payment
     @PostMapping("/verify")
-    public ResponseEntity<String> verifyPayment(@RequestBody Map<String, String> paymentData) {
-        orderService.verifyPayment(paymentData, "paid");
-        return ResponseEntity.ok("Payment verified successfully");
+    public ResponseEntity<?> verifyPayment(@RequestBody Map<String, String> paymentData,
+                                           @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute("orders:verify", idempotencyKey, paymentData, () -> {
+            orderService.verifyPayment(paymentData, "paid");
+            return ResponseEntity.ok("Payment verified successfully");
+        });
+    }
+
+    // Admin: post-payment outbox (pending / done / dead events)
+    @GetMapping("/admin/outbox/stats")
+    public ResponseEntity<Map<String, Object>> getOutboxStats() {
+        return ResponseEntity.ok(outboxService.stats());
+    }
+
+    // Admin: give dead-lettered side effects another round of attempts
+    @PostMapping("/admin/outbox/retry-dead")
+    public ResponseEntity<Map<String, Object>> retryDeadOutboxEvents() {
+        return ResponseEntity.ok(Map.of("revived", outboxService.retryDead()));
     }
 
     // ✅ User: Get single order for tracking
@@ -51,10 +81,13 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getOrderById(orderId));
     }
 
-    // ✅ Get all orders for logged-in user
+    // ✅ Get orders of the logged-in user, newest first, one page at a time
     @GetMapping("/user")
-    public ResponseEntity<List<OrderResponse>> getUserOrders() {
-        return ResponseEntity.ok(orderService.getUserOrders());
+    public ResponseEntity<OrderPage> getUserOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(orderService.getUserOrders(cursor, size));
     }
 
     @GetMapping("/admin/{orderId}")
@@ -71,18 +104,39 @@ public class OrderController {
 
     // ✅ Admin: Get orders filtered by userId or phone
     @GetMapping("/filter")
-    public ResponseEntity<List<OrderResponse>> filterOrders(
+    public ResponseEntity<OrderPage> filterOrders(
             @RequestParam(required = false) String userId,
-            @RequestParam(required = false) String phone
+            @RequestParam(required = false) String phone,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
     ) {
-        return ResponseEntity.ok(orderService.getOrdersFiltered(userId, phone));
+        OrderFilter filter = OrderFilter.builder().userId(userId).phone(phone).build();
+        return ResponseEntity.ok(orderService.getOrdersPage(filter, cursor, size));
     }
 
 
-    // ✅ Admin: Get all orders across all users
+    // ✅ Admin: Get orders across all users, newest first, one page at a time
+    // (pass nextCursor back as cursor for the following page)
     @GetMapping("/all")
-    public ResponseEntity<List<OrderResponse>> getOrdersOfAllUsers() {
-        return ResponseEntity.ok(orderService.getOrdersOfAllUsers());
+    public ResponseEntity<OrderPage> getOrdersOfAllUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String paymentStatus,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String courier,
+            @RequestParam(required = false) String coupon
+    ) {
+        OrderFilter filter = OrderFilter.builder()
+                .status(status)
+                .paymentStatus(paymentStatus)
+                .from(from)
+                .to(to)
+                .courier(courier)
+                .coupon(coupon)
+                .build();
+        return ResponseEntity.ok(orderService.getOrdersPage(filter, cursor, size));
     }
 
     // ✅ Admin: Update order status (e.g., DISPATCHED, DELIVERED, CANCELLED)
@@ -194,6 +248,21 @@ public class OrderController {
     }
 
 
+    // ✅ Delivery Partner: open orders assigned to this partner (polled by the app)
+    @GetMapping("/partner/queue/{deliveryBoyId}")
+    public ResponseEntity<List<DeliveryTask>> getDeliveryQueue(@PathVariable String deliveryBoyId) {
+        return ResponseEntity.ok(orderService.getDeliveryQueue(deliveryBoyId));
+    }
+
+    // ✅ Admin: Assign an order to a delivery partner
+    @PutMapping("/admin/assign/{orderId}")
+    public ResponseEntity<String> assignDeliveryBoy(
+            @PathVariable String orderId,
+            @RequestParam String deliveryBoyId) {
+        orderService.assignDeliveryBoy(orderId, deliveryBoyId);
+        return ResponseEntity.ok("Order assigned to " + deliveryBoyId);
+    }
+
     @PostMapping("/partner/{id}/message")
     public ResponseEntity<?> addDeliveryMessage(
             @PathVariable String id,
@@ -205,38 +274,29 @@ public class OrderController {
             return ResponseEntity.badRequest().body("Message required");
         }
 
-        OrderEntity order = orderRepository.findById(id).orElse(null);
-        if (order == null) {
+        if (!orderRepository.existsById(id)) {
             return ResponseEntity.status(404).body("Order not found");
         }
 
-        if (order.getDeliveryMessages() == null) {
-            order.setDeliveryMessages(new ArrayList<>());
-        }
-
-        // Use builder to create DeliveryMessage
-        DeliveryMessage deliveryMessage = DeliveryMessage.builder()
-                .message(message)
-                .timestamp(LocalDateTime.now())
-                .actor(body.getOrDefault("actor", "partner")) // optional
-                .reason(body.getOrDefault("reason", null))    // optional
-                .build();
-
-        order.getDeliveryMessages().add(deliveryMessage);
-        orderRepository.save(order);
+        orderTimelineService.append(
+                id,
+                message,
+                body.getOrDefault("actor", "partner"), // optional
+                body.getOrDefault("reason", null)      // optional
+        );
 
         return ResponseEntity.ok("Message saved");
     }
 
-    @GetMapping("/orders/{orderId}/messages")
-    public ResponseEntity<?> getDeliveryMessages(@PathVariable String orderId) {
-        OrderEntity order = orderRepository.findById(orderId).orElse(null);
-
-        if (order == null) {
+    // ✅ Delivery timeline of an order, newest bucket first (pass nextCursor back as cursor for older messages)
+    @GetMapping("/{orderId}/timeline")
+    public ResponseEntity<?> getTimeline(
+            @PathVariable String orderId,
+            @RequestParam(required = false) String cursor) {
+        if (!orderRepository.existsById(orderId)) {
             return ResponseEntity.status(404).body("Order not found");
         }
-
-        return ResponseEntity.ok(order.getDeliveryMessages());
+        return ResponseEntity.ok(orderTimelineService.page(orderId, cursor));
     }
 
 
@@ -259,24 +319,44 @@ public class OrderController {
             return ResponseEntity.badRequest().body("Phone number cannot be empty");
         }
 
-        Optional<OrderEntity> optional = orderRepository.findById(id);
-        if (optional.isEmpty()) {
+        if (!orderRepository.existsById(id)) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Order not found");
         }
 
-        OrderEntity order = optional.get();
-
-        // Block editing after SHIPPED
-        if (order.getOrderStatus().ordinal() >= OrderStatus.SHIPPED.ordinal()) {
+        // Block editing after SHIPPED (checked by the write itself, so a concurrent ship wins)
+        boolean updated = orderMutationService.update(
+                id,
+                Criteria.where("orderStatus").in(OrderMutationService.BEFORE_SHIPPING),
+                new Update().set("phoneNumber", newPhone)
+        ).isPresent();
+        if (!updated) {
             return ResponseEntity.badRequest().body("Phone cannot be updated after shipping");
         }
 
-        order.setPhoneNumber(newPhone);
-        orderRepository.save(order);
-
         return ResponseEntity.ok("Phone updated");
     }
 
+    // ✅ Hub: work queue of one hub (ORDER_AT_HUB and OUT_FOR_DELIVERY unless status is given), newest first
+    @GetMapping("/hub/queue/{hubName}")
+    public ResponseEntity<OrderPage> getHubQueue(
+            @PathVariable String hubName,
+            @RequestParam(required = false) List<String> status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(orderService.getHubQueue(hubName, status, cursor, size));
+    }
+
+    // ✅ Hub: order arrived at a hub (body: hubName, staffName, message)
+    @PostMapping("/hub/arrival/{orderId}")
+    public ResponseEntity<OrderResponse> recordHubArrival(
+            @PathVariable String orderId,
+            @RequestBody Map<String, String> body
+    ) {
+        return ResponseEntity.ok(orderService.recordHubArrival(
+                orderId, body.get("hubName"), body.get("staffName"), body.get("message")));
+    }
+
     // ✅ Delivery Partner: Get single hub order (ORDER_AT_HUB or OUT_FOR_DELIVERY)
     @GetMapping("/hub/{orderId}")
     public ResponseEntity<?> getHubOrderById(@PathVariable String orderId) {
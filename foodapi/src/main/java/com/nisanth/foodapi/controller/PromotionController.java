@@ -3,7 +3,10 @@ package com.nisanth.foodapi.controller;
 import com.nisanth.foodapi.entity.PromotionEntity;
 import com.nisanth.foodapi.repository.offers.PromotionRepository;
 import com.nisanth.foodapi.service.FoodService;
+import com.nisanth.foodapi.service.cache.ResponseCache;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -21,6 +24,9 @@ public class PromotionController {
     @Autowired
     private FoodService fileUploadService;
 
+    @Autowired
+    private ResponseCache responseCache;
+
     // ✅ GET ALL
     @GetMapping
     public List<PromotionEntity> getAll() {
@@ -44,7 +50,9 @@ public class PromotionController {
             String imageUrl = fileUploadService.uploadFile(image);
             promotion.setBannerImage(imageUrl);
         }
-        return promotionRepository.save(promotion);
+        PromotionEntity saved = promotionRepository.save(promotion);
+        responseCache.invalidate(ResponseCache.ACTIVE_PROMOTIONS);
+        return saved;
     }
 
     // ✅ UPDATE (IMAGE OPTIONAL)
@@ -61,18 +69,21 @@ public class PromotionController {
             promotion.setBannerImage(imageUrl);
         }
 
-        return promotionRepository.save(promotion);
+        PromotionEntity saved = promotionRepository.save(promotion);
+        responseCache.invalidate(ResponseCache.ACTIVE_PROMOTIONS);
+        return saved;
     }
 
     // ✅ DELETE
     @DeleteMapping("/{id}")
     public void delete(@PathVariable String id) {
         promotionRepository.deleteById(id);
+        responseCache.invalidate(ResponseCache.ACTIVE_PROMOTIONS);
     }
 
     // ✅ ACTIVE PROMOTIONS
     @GetMapping("/active")
-    public List<PromotionEntity> getActivePromotions() {
-        return promotionRepository.findByActiveTrue();
+    public ResponseEntity<byte[]> getActivePromotions(HttpServletRequest request) {
+        return responseCache.serve(ResponseCache.ACTIVE_PROMOTIONS, request, promotionRepository::findByActiveTrue);
     }
 }
@@ -2,6 +2,8 @@ package com.nisanth.foodapi.controller;
 
 import com.nisanth.foodapi.entity.Setting;
 import com.nisanth.foodapi.service.SettingService;
+import com.nisanth.foodapi.service.cache.ResponseCache;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -15,6 +17,7 @@ import java.util.Map;
 public class SettingController {
 
     private final SettingService service;
+    private final ResponseCache responseCache;
 
 
     @GetMapping
@@ -26,6 +29,7 @@ public class SettingController {
     public ResponseEntity<?> updateSettings(@RequestBody Setting setting) {
         try {
             Setting saved = service.updateSettings(setting);
+            responseCache.invalidate(ResponseCache.SETTINGS_TAX);
             return ResponseEntity.ok(saved);
 
         } catch (IllegalArgumentException e) {
@@ -59,13 +63,15 @@ public class SettingController {
 
 
         @GetMapping("/tax")
-        public ResponseEntity<?> getcarUtils() {
-            Setting setting = service.getSettings();
-
-            return ResponseEntity.ok(Map.of(
-                    "taxPercentage", setting.getTaxPercentage(),
-                    "shippingCharge", setting.getShippingCharge()
-            ));
+        public ResponseEntity<?> getcarUtils(HttpServletRequest request) {
+            return responseCache.serve(ResponseCache.SETTINGS_TAX, request, () -> {
+                Setting setting = service.getSettings();
+
+                return Map.of(
+                        "taxPercentage", setting.getTaxPercentage(),
+                        "shippingCharge", setting.getShippingCharge()
+                );
+            });
         }
 
 
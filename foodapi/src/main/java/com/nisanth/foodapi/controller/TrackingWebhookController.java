@@ -3,7 +3,10 @@ package com.nisanth.foodapi.controller;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.nisanth.foodapi.entity.OrderEntity;
 import com.nisanth.foodapi.enumeration.OrderStatus;
+import com.nisanth.foodapi.io.util.DeliveryMessage;
 import com.nisanth.foodapi.repository.OrderRepository;
+import com.nisanth.foodapi.service.order.OrderMutationService;
+import com.nisanth.foodapi.service.timeline.OrderTimelineService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -18,6 +21,8 @@ import java.time.LocalDateTime;
 @RequiredArgsConstructor
 public class TrackingWebhookController {
     private final OrderRepository repo;
+    private final OrderTimelineService orderTimelineService;
+    private final OrderMutationService orderMutationService;
 
     @PostMapping
     public ResponseEntity<?> webhook(@RequestBody JsonNode body) {
@@ -28,10 +33,15 @@ public class TrackingWebhookController {
         OrderEntity order = repo.findByCourierTrackingId(trackingId);
         if(order==null) return ResponseEntity.ok().build();
 
-        order.addMessage(status, LocalDateTime.parse(timestamp), "courier", null);
-        if(status.equalsIgnoreCase("Delivered")) order.setOrderStatus(OrderStatus.DELIVERED);
-
-        repo.save(order);
+        orderTimelineService.append(order.getId(), DeliveryMessage.builder()
+                .message(status)
+                .timestamp(LocalDateTime.parse(timestamp))
+                .actor("courier")
+                .build());
+        if(status.equalsIgnoreCase("Delivered")) {
+            orderMutationService.changeStatus(order.getId(), OrderStatus.DELIVERED,
+                    OrderMutationService.allBut(OrderMutationService.FINAL), null);
+        }
         return ResponseEntity.ok().build();
     }
 }
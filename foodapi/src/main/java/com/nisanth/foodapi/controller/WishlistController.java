@@ -45,10 +45,8 @@ public class WishlistController {
 
         List<FoodEntity> foods = foodRepo.findByIdIn(user.getWishlist());
 
-        // ✅ USE SERVICE MAPPER
-        return foods.stream()
-                .map(foodService::convertToResponse)
-                .toList();
+        // ✅ USE SERVICE MAPPER (bulk, one query per dependency)
+        return foodService.convertToResponses(foods);
     }
 
 
@@ -0,0 +1,118 @@
+package com.nisanth.foodapi.cron;
+
+import com.nisanth.foodapi.entity.FoodEntity;
+import com.nisanth.foodapi.service.catalog.CatalogCache;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recomputes FoodEntity.bestSeller from soldCount: within each category the
+ * top {@code bestseller.top-percent} of foods (at least one) are best
+ * sellers, provided they sold at least {@code bestseller.min-sold} units.
+ * Runs on startup, every {@code bestseller.interval} and on demand from the
+ * admin API; only foods whose flag actually changes are written.
+ */
+@Component
+@RequiredArgsConstructor
+public class BestSellerRankingJob {
+
+    private final MongoTemplate mongoTemplate;
+    private final CatalogCache catalogCache;
+
+    @Value("${bestseller.top-percent:10}")
+    private double topPercent;
+
+    @Value("${bestseller.min-sold:10}")
+    private long minSold;
+
+    @Value("${bestseller.interval:PT15M}")
+    private Duration interval;
+
+    private ScheduledExecutorService scheduler;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "best-seller-ranking");
+            t.setDaemon(true);
+            return t;
+        });
+        long millis = Math.max(60_000, interval.toMillis());
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                rank();
+            } catch (Exception e) {
+                System.out.println("Best-seller ranking failed: " + e.getMessage());
+            }
+        }, 0, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) scheduler.shutdownNow();
+    }
+
+    /**
+     * @return number of foods whose best-seller flag changed
+     */
+    public synchronized int rank() {
+        Query query = new Query();
+        query.fields().include("categoryIds").include("soldCount").include("bestSeller");
+        List<FoodEntity> foods = mongoTemplate.find(query, FoodEntity.class);
+
+        Map<String, List<FoodEntity>> byCategory = new HashMap<>();
+        for (FoodEntity food : foods) {
+            List<String> categories = food.getCategoryIds() == null || food.getCategoryIds().isEmpty()
+                    ? List.of("")
+                    : food.getCategoryIds();
+            for (String categoryId : categories) {
+                byCategory.computeIfAbsent(categoryId, k -> new ArrayList<>()).add(food);
+            }
+        }
+
+        Set<String> winners = new HashSet<>();
+        for (List<FoodEntity> members : byCategory.values()) {
+            members.sort(Comparator.comparingLong(FoodEntity::getSoldCount).reversed());
+            int slots = Math.max(1, (int) Math.ceil(members.size() * topPercent / 100.0));
+            for (FoodEntity food : members.subList(0, Math.min(slots, members.size()))) {
+                if (food.getSoldCount() >= minSold) winners.add(food.getId());
+            }
+        }
+
+        List<String> promoted = new ArrayList<>();
+        List<String> demoted = new ArrayList<>();
+        for (FoodEntity food : foods) {
+            boolean best = winners.contains(food.getId());
+            if (best && !food.isBestSeller()) promoted.add(food.getId());
+            if (!best && food.isBestSeller()) demoted.add(food.getId());
+        }
+
+        if (!promoted.isEmpty()) {
+            mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(promoted)),
+                    new Update().set("bestSeller", true), FoodEntity.class);
+        }
+        if (!demoted.isEmpty()) {
+            mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(demoted)),
+                    new Update().set("bestSeller", false), FoodEntity.class);
+        }
+
+        List<String> changed = new ArrayList<>(promoted);
+        changed.addAll(demoted);
+        if (!changed.isEmpty()) catalogCache.invalidateFoods(changed);
+        return changed.size();
+    }
+}
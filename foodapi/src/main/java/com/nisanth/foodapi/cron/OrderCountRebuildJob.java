@@ -0,0 +1,126 @@
+package com.nisanth.foodapi.cron;
+
+import com.nisanth.foodapi.entity.FoodEntity;
+import com.nisanth.foodapi.entity.OrderEntity;
+import com.nisanth.foodapi.entity.OutboxEventEntity;
+import com.nisanth.foodapi.enumeration.OutboxEventType;
+import com.nisanth.foodapi.enumeration.OutboxStatus;
+import com.nisanth.foodapi.io.food.FoodOrderCount;
+import com.nisanth.foodapi.repository.OrderRepository;
+import com.nisanth.foodapi.service.catalog.CatalogCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Recomputes FoodEntity.orderCount from the orders collection. Runs once on
+ * startup when foods without the counter exist and on demand from the admin API;
+ * afterwards the counter is maintained by OrderServiceImpl.
+ *
+ * Only foods whose counter differs are written, and only while they still
+ * hold the value read before the aggregation, so a concurrent {@code $inc}
+ * is never overwritten (that food is left for the next run instead).
+ *
+ * Only orders whose ORDER_COUNTS outbox effect has run are counted; the
+ * others still get their {@code $inc} from the outbox. Paid orders from
+ * before the outbox never will, so they are marked as applied first.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderCountRebuildJob {
+
+    private final OrderRepository orderRepository;
+    private final MongoTemplate mongoTemplate;
+    private final CatalogCache catalogCache;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfNeeded() {
+        boolean missing = mongoTemplate.exists(
+                Query.query(Criteria.where("orderCount").exists(false)),
+                FoodEntity.class
+        );
+        if (missing) rebuild();
+    }
+
+    /**
+     * @return number of foods whose counter was corrected
+     */
+    public int rebuild() {
+        // foods from before the counter existed start at 0, like new ones
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("orderCount").exists(false)),
+                new Update().set("orderCount", 0L),
+                FoodEntity.class);
+
+        markLegacyOrders();
+
+        // read before aggregating: the guard below then catches every change applied since
+        Query current = new Query();
+        current.fields().include("orderCount");
+        List<FoodEntity> foods = mongoTemplate.find(current, FoodEntity.class);
+
+        Map<String, Long> counts = new HashMap<>();
+        for (FoodOrderCount c : orderRepository.countPaidOrdersPerFood()) {
+            if (c.getId() != null) counts.put(c.getId(), c.getOrderCount());
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, FoodEntity.class);
+        List<String> changed = new ArrayList<>();
+        for (FoodEntity food : foods) {
+            long count = counts.getOrDefault(food.getId(), 0L);
+            if (food.getOrderCount() == count) continue;
+
+            bulk.updateOne(
+                    Query.query(Criteria.where("_id").is(food.getId()).and("orderCount").is(food.getOrderCount())),
+                    new Update().set("orderCount", count));
+            changed.add(food.getId());
+        }
+        if (changed.isEmpty()) return 0;
+
+        int updated = bulk.execute().getModifiedCount();
+        catalogCache.invalidateFoods(changed);
+        return updated;
+    }
+
+    // paid orders without the marker that the outbox is not (and will not be) working on
+    private void markLegacyOrders() {
+        String marker = "paidEffectsApplied." + OutboxEventType.ORDER_COUNTS;
+        Criteria unmarked = Criteria.where("paymentStatus").is("paid")
+                .and(marker).exists(false)
+                .and("paidEffectsPending").ne(true);
+
+        Query query = Query.query(unmarked);
+        query.fields().include("_id");
+        List<String> orderIds = mongoTemplate.find(query, OrderEntity.class).stream()
+                .map(OrderEntity::getId)
+                .toList();
+        if (orderIds.isEmpty()) return;
+
+        Query queued = Query.query(Criteria.where("_id").in(orderIds.stream()
+                        .map(id -> id + ":" + OutboxEventType.ORDER_COUNTS)
+                        .toList())
+                .and("status").ne(OutboxStatus.DONE));
+        queued.fields().include("orderId");
+        Set<String> inOutbox = new HashSet<>();
+        for (OutboxEventEntity event : mongoTemplate.find(queued, OutboxEventEntity.class)) {
+            inOutbox.add(event.getOrderId());
+        }
+
+        List<String> legacy = orderIds.stream().filter(id -> !inOutbox.contains(id)).toList();
+        if (legacy.isEmpty()) return;
+        long marked = mongoTemplate.updateMulti(
+                Query.query(Criteria.where("_id").in(legacy).and(marker).exists(false).and("paidEffectsPending").ne(true)),
+                new Update().set(marker, true),
+                OrderEntity.class
+        ).getModifiedCount();
+        System.out.println("Marked ORDER_COUNTS as applied on " + marked + " paid orders from before the outbox");
+    }
+}
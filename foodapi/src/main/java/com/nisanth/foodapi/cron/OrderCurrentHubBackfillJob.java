@@ -0,0 +1,53 @@
+package com.nisanth.foodapi.cron;
+
+import com.nisanth.foodapi.entity.OrderEntity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.StringOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gives orders that have a hubHistory but no currentHub the hub of their last
+ * history entry, so they show up in that hub's queue, and brings currentHub
+ * values written before it was normalized to the trimmed, lower-case key
+ * OrderServiceImpl now stores. Runs once on startup and is a no-op afterwards.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderCurrentHubBackfillJob {
+
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        long updated = mongoTemplate.updateMulti(
+                Query.query(Criteria.where("currentHub").is(null).and("hubHistory.0").exists(true)),
+                AggregationUpdate.update()
+                        .set("currentHub").toValue(StringOperators.ToLower.lowerValueOf(
+                                StringOperators.Trim.valueOf(
+                                        ArrayOperators.ArrayElemAt.arrayOf("$hubHistory.hubName").elementAt(-1)))),
+                OrderEntity.class
+        ).getModifiedCount();
+        if (updated > 0) {
+            System.out.println("Backfilled currentHub on " + updated + " orders");
+        }
+
+        StringOperators.ToLower key = StringOperators.ToLower.lowerValueOf(StringOperators.Trim.valueOf("currentHub"));
+        long normalized = mongoTemplate.updateMulti(
+                Query.query(Criteria.where("currentHub").type(2)
+                        .andOperator(Criteria.expr(ComparisonOperators.Ne.valueOf("currentHub").notEqualTo(key)))),
+                AggregationUpdate.update().set("currentHub").toValue(key),
+                OrderEntity.class
+        ).getModifiedCount();
+        if (normalized > 0) {
+            System.out.println("Normalized currentHub on " + normalized + " orders");
+        }
+    }
+}
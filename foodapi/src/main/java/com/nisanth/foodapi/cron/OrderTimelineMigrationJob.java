@@ -0,0 +1,63 @@
+package com.nisanth.foodapi.cron;
+
+import com.nisanth.foodapi.entity.OrderEntity;
+import com.nisanth.foodapi.io.util.DeliveryMessage;
+import com.nisanth.foodapi.service.timeline.OrderTimelineService;
+import jakarta.annotation.PostConstruct;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Moves deliveryMessages that are still embedded in order documents into
+ * OrderTimelineService buckets, then removes them from the order.
+ *
+ * Runs while the context starts, i.e. before the web server accepts requests:
+ * OrderEntity no longer maps the field, so any save of a not-yet-migrated
+ * order would drop its history. Buckets are written before the field is
+ * removed, so an interrupted run just picks the order up again next time.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderTimelineMigrationJob {
+
+    private final MongoTemplate mongoTemplate;
+    private final OrderTimelineService orderTimelineService;
+
+    @PostConstruct
+    public void migrate() {
+        Query legacy = Query.query(Criteria.where("deliveryMessages").exists(true));
+        legacy.fields().include("deliveryMessages");
+
+        int moved = 0;
+        try (Stream<LegacyTimeline> orders = mongoTemplate.stream(legacy, LegacyTimeline.class, "orders")) {
+            for (LegacyTimeline order : (Iterable<LegacyTimeline>) orders::iterator) {
+                orderTimelineService.importLegacy(order.getId(), order.getDeliveryMessages());
+                mongoTemplate.updateFirst(
+                        Query.query(Criteria.where("_id").is(order.getId())),
+                        new Update().unset("deliveryMessages"),
+                        OrderEntity.class
+                );
+                moved++;
+            }
+        }
+        if (moved > 0) {
+            System.out.println("Moved delivery timelines of " + moved + " orders to order_timelines");
+        }
+    }
+
+    @Data
+    static class LegacyTimeline {
+        @Id
+        private String id;
+        private List<DeliveryMessage> deliveryMessages;
+    }
+}
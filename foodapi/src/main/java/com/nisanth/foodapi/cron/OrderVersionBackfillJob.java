@@ -0,0 +1,35 @@
+package com.nisanth.foodapi.cron;
+
+import com.nisanth.foodapi.entity.OrderEntity;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gives orders written before OrderEntity was {@code @Version}ed a version of
+ * 0. Without it Spring Data takes a loaded order with a null version for a
+ * new one, and saving it would try to insert a duplicate. Runs while the
+ * context starts, before any request can save an order.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderVersionBackfillJob {
+
+    private final MongoTemplate mongoTemplate;
+
+    @PostConstruct
+    public void backfill() {
+        long updated = mongoTemplate.updateMulti(
+                Query.query(Criteria.where("version").exists(false)),
+                new Update().set("version", 0L),
+                OrderEntity.class
+        ).getModifiedCount();
+        if (updated > 0) {
+            System.out.println("Backfilled version on " + updated + " orders");
+        }
+    }
+}
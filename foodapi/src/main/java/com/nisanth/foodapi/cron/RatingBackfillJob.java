@@ -0,0 +1,95 @@
+package com.nisanth.foodapi.cron;
+
+import com.nisanth.foodapi.entity.FoodEntity;
+import com.nisanth.foodapi.io.food.FoodRatingAggregate;
+import com.nisanth.foodapi.repository.ReviewRepository;
+import com.nisanth.foodapi.service.catalog.CatalogCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Recomputes ratingSum / ratingCount / ratingHistogram on every food from the
+ * reviews collection. Runs once on startup when foods without aggregates exist
+ * (data created before the fields were introduced) and on demand from the admin API.
+ *
+ * Safe next to live reviews: only foods whose aggregates differ are written,
+ * and only while they still hold the values read before the aggregation, so
+ * a concurrent {@code $inc} from ReviewServiceImpl is never overwritten (that
+ * food is left for the next run instead).
+ */
+@Component
+@RequiredArgsConstructor
+public class RatingBackfillJob {
+
+    private final ReviewRepository reviewRepository;
+    private final MongoTemplate mongoTemplate;
+    private final CatalogCache catalogCache;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfNeeded() {
+        boolean missing = mongoTemplate.exists(
+                Query.query(Criteria.where("ratingCount").exists(false)),
+                FoodEntity.class
+        );
+        if (missing) backfill();
+    }
+
+    /**
+     * @return number of foods whose aggregates were corrected
+     */
+    public int backfill() {
+        // read before aggregating: the guard below then catches every review applied since
+        Query current = new Query();
+        current.fields().include("ratingSum").include("ratingCount").include("ratingHistogram");
+        List<FoodEntity> foods = mongoTemplate.find(current, FoodEntity.class);
+
+        Map<String, FoodRatingAggregate> aggregates = new HashMap<>();
+        for (FoodRatingAggregate a : reviewRepository.getRatingAggregates()) {
+            if (a.getId() != null) aggregates.put(a.getId(), a);
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, FoodEntity.class);
+        List<String> changed = new ArrayList<>();
+        for (FoodEntity food : foods) {
+            FoodRatingAggregate a = aggregates.get(food.getId());
+            long sum = a != null ? a.getRatingSum() : 0L;
+            int count = a != null ? a.getRatingCount() : 0;
+            Map<String, Integer> histogram = a != null && a.getRatingHistogram() != null
+                    ? a.getRatingHistogram() : new HashMap<>();
+
+            if (food.getRatingHistogram() != null && food.getRatingSum() == sum && food.getRatingCount() == count
+                    && food.getRatingHistogram().equals(histogram)) {
+                continue;
+            }
+            bulk.updateOne(
+                    Query.query(Criteria.where("_id").is(food.getId())
+                            .and("ratingSum").in(asRead(food.getRatingSum()))
+                            .and("ratingCount").in(asRead(food.getRatingCount()))),
+                    new Update()
+                            .set("ratingSum", sum)
+                            .set("ratingCount", count)
+                            .set("ratingHistogram", histogram)
+            );
+            changed.add(food.getId());
+        }
+        if (changed.isEmpty()) return 0;
+
+        int updated = bulk.execute().getModifiedCount();
+        catalogCache.invalidateFoods(changed);
+        return updated;
+    }
+
+    // a 0 read back may also be a field that does not exist yet
+    private static List<Object> asRead(long value) {
+        return value == 0 ? Arrays.asList(0, null) : List.of(value);
+    }
+}
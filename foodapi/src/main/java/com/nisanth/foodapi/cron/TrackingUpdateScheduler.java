@@ -3,7 +3,10 @@ package com.nisanth.foodapi.cron;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.nisanth.foodapi.entity.OrderEntity;
 import com.nisanth.foodapi.enumeration.OrderStatus;
+import com.nisanth.foodapi.io.util.DeliveryMessage;
 import com.nisanth.foodapi.repository.OrderRepository;
+import com.nisanth.foodapi.service.order.OrderMutationService;
+import com.nisanth.foodapi.service.timeline.OrderTimelineService;
 import com.nisanth.foodapi.service.ShipTrackingService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -17,6 +20,8 @@ import java.util.List;
 public class TrackingUpdateScheduler {
     private final OrderRepository repo;
     private final ShipTrackingService courierService;
+    private final OrderTimelineService orderTimelineService;
+    private final OrderMutationService orderMutationService;
 
     @Scheduled(fixedDelay = 10*60*1000) // every 10 min
     public void syncTrackingUpdates() {
@@ -25,22 +30,27 @@ public class TrackingUpdateScheduler {
                 JsonNode data = courierService.fetchTracking(o.getCourierTrackingId());
                 if (data==null || !data.has("events")) return;
 
-                data.get("events").forEach(ev -> {
+                OrderStatus latest = null;
+                for (JsonNode ev : data.get("events")) {
                     String msg = ev.get("status").asText();
                     LocalDateTime time = LocalDateTime.parse(ev.get("timestamp").asText());
 
-                    boolean exists = o.getDeliveryMessages().stream()
-                            .anyMatch(m->m.getMessage().equals(msg));
+                    boolean exists = orderTimelineService.contains(o.getId(), msg);
 
                     if(!exists){
-                        o.addMessage(msg, time, "courier", null);
+                        orderTimelineService.append(o.getId(), DeliveryMessage.builder()
+                                .message(msg).timestamp(time).actor("courier").build());
 
-                        if(msg.toLowerCase().contains("delivered")) o.setOrderStatus(OrderStatus.DELIVERED);
-                        if(msg.toLowerCase().contains("out for delivery")) o.setOrderStatus(OrderStatus.OUT_FOR_DELIVERY);
-                        if(msg.toLowerCase().contains("shipped")) o.setOrderStatus(OrderStatus.SHIPPED);
+                        if(msg.toLowerCase().contains("delivered")) latest = OrderStatus.DELIVERED;
+                        if(msg.toLowerCase().contains("out for delivery")) latest = OrderStatus.OUT_FOR_DELIVERY;
+                        if(msg.toLowerCase().contains("shipped")) latest = OrderStatus.SHIPPED;
                     }
-                });
-                repo.save(o);
+                }
+                // only the status moves; a cancelled or delivered order stays as it is
+                if (latest != null) {
+                    orderMutationService.changeStatus(o.getId(), latest,
+                            OrderMutationService.allBut(OrderMutationService.FINAL), null);
+                }
             } catch(Exception ignored){}
         });
     }
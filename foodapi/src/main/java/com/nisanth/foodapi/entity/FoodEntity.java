@@ -5,11 +5,27 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.List;
+import java.util.Map;
 
 @Document(collection = "foods")
+@CompoundIndexes({
+        // catalog browse: default order, with and without a category filter
+        @CompoundIndex(name = "sponsored_featured", def = "{'sponsored': -1, 'featured': -1, '_id': 1}"),
+        @CompoundIndex(name = "category_sponsored_featured", def = "{'categoryIds': 1, 'sponsored': -1, 'featured': -1, '_id': 1}"),
+        // catalog browse: price sorts inside a category
+        @CompoundIndex(name = "category_price", def = "{'categoryIds': 1, 'sellingPrice': 1, '_id': 1}"),
+        // best-seller / top-selling lists
+        @CompoundIndex(name = "best_seller_sold", def = "{'bestSeller': 1, 'soldCount': -1}"),
+        @CompoundIndex(name = "sold_count", def = "{'soldCount': -1}"),
+        // StockReservationService rollback looks foods up by its in-flight token
+        @CompoundIndex(name = "reservation_tokens", def = "{'reservationTokens': 1}", sparse = true)
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -24,6 +40,7 @@ public class FoodEntity {
 
     // 🔥 PRICING (PHASE 1)
     private double mrp;            // original price
+    @Indexed
     private double sellingPrice;   // discounted price
     private boolean offerActive;
     private String offerLabel;     // "23% OFF", "Deal of the Day"
@@ -37,8 +54,19 @@ public class FoodEntity {
     private int stock;
     private int lowStockThreshold = 5;
     private boolean outOfStock;
+
+    // 🔥 HOT STOCK (HotStockCounters): pinned by admin, and units each instance leased into memory
+    private boolean hotStock;
+    private Map<String, Integer> hotLeases;
+    private long hotLeaseEpoch;   // bumped by absolute stock edits, which revoke every lease
     private long soldCount;
+    private long orderCount;   // paid, non-cancelled orders containing this food
 
     private boolean bestSeller;
 
+    // ⭐ RATINGS (kept in sync by ReviewServiceImpl, backfilled by RatingBackfillJob)
+    private long ratingSum;
+    private int ratingCount;
+    private Map<String, Integer> ratingHistogram;   // "1".."5" → count
+
 }
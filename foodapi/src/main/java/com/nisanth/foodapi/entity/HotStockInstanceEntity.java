@@ -0,0 +1,29 @@
+package com.nisanth.foodapi.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Claim on a {@code stock.hot.instance-id}, held by the running instance
+ * that heartbeats it. Two instances sharing an id would share one lease
+ * ledger entry, so HotStockCounters refuses to start on a claimed id.
+ */
+@Document(collection = "hot_stock_instances")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotStockInstanceEntity {
+
+    @Id
+    private String id;              // stock.hot.instance-id
+
+    private String token;           // random per process start
+    private Date heartbeatAt;
+}
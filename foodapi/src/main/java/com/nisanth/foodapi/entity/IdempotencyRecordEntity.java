@@ -0,0 +1,41 @@
+package com.nisanth.foodapi.entity;
+
+import com.nisanth.foodapi.enumeration.IdempotencyStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * First response for an Idempotency-Key, replayed for repeats of the same
+ * request. Removed by Mongo's TTL monitor at {@code expiresAt}.
+ */
+@Document(collection = "idempotency_keys")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecordEntity {
+
+    @Id
+    private String id;                  // scope:principal:key
+
+    private String requestHash;         // SHA-256 of the request body
+    private IdempotencyStatus status;
+    private Date lockedUntil;           // IN_PROGRESS only: after this another request may take over
+    private String owner;               // IN_PROGRESS only: token of the request holding the claim
+
+    private int responseStatus;
+    private String contentType;
+    private byte[] responseBody;
+
+    private Date createdAt;
+
+    @Indexed(expireAfterSeconds = 0)
+    private Date expiresAt;
+}
@@ -1,7 +1,6 @@
 package com.nisanth.foodapi.entity;
 
 import com.nisanth.foodapi.enumeration.OrderStatus;
-import com.nisanth.foodapi.io.util.DeliveryMessage;
 import com.nisanth.foodapi.io.order.OrderItem;
 import com.nisanth.foodapi.io.HubUpdate;
 import lombok.Builder;
@@ -10,6 +9,9 @@ import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
@@ -20,6 +22,20 @@ import java.util.List;
 import java.util.Map;
 
 @Document(collection = "orders")
+// keyset order of the admin listing, alone and behind each equality filter
+@CompoundIndexes({
+        @CompoundIndex(name = "created_desc", def = "{'createdDate': -1, '_id': -1}"),
+        @CompoundIndex(name = "user_created_desc", def = "{'userId': 1, 'createdDate': -1, '_id': -1}"),
+        @CompoundIndex(name = "phone_created_desc", def = "{'phoneNumber': 1, 'createdDate': -1, '_id': -1}"),
+        @CompoundIndex(name = "status_created_desc", def = "{'orderStatus': 1, 'createdDate': -1, '_id': -1}"),
+        @CompoundIndex(name = "payment_created_desc", def = "{'paymentStatus': 1, 'createdDate': -1, '_id': -1}"),
+        @CompoundIndex(name = "courier_created_desc", def = "{'courierName': 1, 'createdDate': -1, '_id': -1}"),
+        @CompoundIndex(name = "coupon_created_desc", def = "{'couponCode': 1, 'createdDate': -1, '_id': -1}"),
+        // hub work queues
+        @CompoundIndex(name = "hub_status_created_desc", def = "{'currentHub': 1, 'orderStatus': 1, 'createdDate': -1, '_id': -1}"),
+        // delivery-partner queues
+        @CompoundIndex(name = "delivery_boy_status_created_desc", def = "{'assignedDeliveryBoyId': 1, 'orderStatus': 1, 'createdDate': -1}")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -29,6 +45,10 @@ public class OrderEntity {
     @Id
     private String id;
 
+    // bumped by every write (OrderMutationService); a save of a stale copy fails instead of overwriting
+    @Version
+    private Long version;
+
     private String userId;
     private String userAddress;
     private String phoneNumber;
@@ -54,19 +74,27 @@ public class OrderEntity {
     @Builder.Default
     private boolean stockRestored = false;
 
+    // set (true) with the unpaid -> paid flip, unset once OutboxService has the side effects;
+    // never stored as false, so the sweep's partial index only holds orders mid-enqueue
+    private Boolean paidEffectsPending;
+
+    // outbox counter effects already applied to the foods (OrderPaidEffects), e.g. SOLD_COUNT -> true
+    private Map<String, Boolean> paidEffectsApplied;
+
     // courier info
     private String courierName;
     private String courierTrackingId;
     private String courierTrackUrl;
 
-    // delivery timeline messages (used in UI)
-    @Builder.Default
-    private List<DeliveryMessage> deliveryMessages = new ArrayList<>();
+    // delivery timeline messages live in order_timelines (OrderTimelineService)
 
     // hub history
     @Builder.Default
     private List<HubUpdate> hubHistory = new ArrayList<>();
 
+    // hub of the last hubHistory entry, kept as its own field so hub queues can be indexed
+    private String currentHub;
+
     // orderStatus → timestamp (Placed, Packed, Shipped, OutForDelivery, Delivered)
     @Builder.Default
     private Map<String, LocalDateTime> statusTimestamps = new HashMap<>();
@@ -84,17 +112,4 @@ public class OrderEntity {
     private String couponCode;
     private Double discountAmount;
 
-    public void addMessage(String message, LocalDateTime time, String actor, String reason) {
-        if (this.deliveryMessages == null) this.deliveryMessages = new ArrayList<>();
-
-        this.deliveryMessages.add(
-                DeliveryMessage.builder()
-                        .message(message)
-                        .timestamp(time)
-                        .actor(actor)
-                        .reason(reason)
-                        .build()
-        );
-    }
-
 }
@@ -0,0 +1,41 @@
+package com.nisanth.foodapi.entity;
+
+import com.nisanth.foodapi.io.util.DeliveryMessage;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Up to {@code order.timeline.bucket-size} delivery messages of one order, in
+ * the order they were added. Buckets of an order are numbered by {@code seq};
+ * only the highest one is still being appended to.
+ */
+@Document(collection = "order_timelines")
+@CompoundIndex(name = "order_seq", def = "{'orderId': 1, 'seq': -1}", unique = true)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderTimelineBucketEntity {
+
+    @Id
+    private String id;          // orderId:seq
+
+    private String orderId;
+    private int seq;            // new buckets count up from 0; history moved out of orders is numbered below 0
+    private int count;
+
+    @Builder.Default
+    private List<DeliveryMessage> messages = new ArrayList<>();
+
+    private Date firstAt;
+    private Date lastAt;
+}
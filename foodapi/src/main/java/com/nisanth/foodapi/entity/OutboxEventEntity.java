@@ -0,0 +1,45 @@
+package com.nisanth.foodapi.entity;
+
+import com.nisanth.foodapi.enumeration.OutboxEventType;
+import com.nisanth.foodapi.enumeration.OutboxStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * One post-payment side effect of an order, processed by OutboxService.
+ * The id is {@code orderId:type}, so writing the same event twice is a no-op.
+ * Finished events are removed by Mongo's TTL monitor at {@code purgeAt}.
+ */
+@Document(collection = "outbox_events")
+@CompoundIndex(name = "status_next_attempt", def = "{'status': 1, 'nextAttemptAt': 1}")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEventEntity {
+
+    @Id
+    private String id;
+
+    private String orderId;
+    private OutboxEventType type;
+
+    private OutboxStatus status;
+    private int attempts;
+    private Date nextAttemptAt;     // also the claim: a running attempt pushes it out by the lease
+    private String lastError;
+
+    private Date createdAt;
+    private Date completedAt;
+
+    @Indexed(expireAfterSeconds = 0)
+    private Date purgeAt;           // set when the event is DONE
+}
@@ -0,0 +1,44 @@
+package com.nisanth.foodapi.entity;
+
+import com.nisanth.foodapi.enumeration.StockHoldStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Ledger entry for the stock an unpaid order is holding.
+ * Open holds are swept by StockHoldService once {@code expiresAt} passes;
+ * settled holds are removed by Mongo's TTL monitor at {@code purgeAt}.
+ */
+@Document(collection = "stock_holds")
+@CompoundIndex(name = "status_expires", def = "{'status': 1, 'expiresAt': 1}")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockHoldEntity {
+
+    @Id
+    private String id;
+
+    @Indexed(unique = true)
+    private String orderId;
+
+    private Map<String, Integer> lines;     // foodId → qty
+
+    private StockHoldStatus status;
+    private Date createdAt;
+    private Date expiresAt;
+    private Date settledAt;
+
+    @Indexed(expireAfterSeconds = 0)
+    private Date purgeAt;                   // set when the hold is settled
+}
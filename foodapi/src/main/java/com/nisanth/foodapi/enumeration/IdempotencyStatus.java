@@ -0,0 +1,6 @@
+package com.nisanth.foodapi.enumeration;
+
+public enum IdempotencyStatus {
+    IN_PROGRESS,   // first request with the key is still running
+    COMPLETED      // response stored, replayed for repeats
+}
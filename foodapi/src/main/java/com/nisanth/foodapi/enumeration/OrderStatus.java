@@ -9,7 +9,8 @@ public enum OrderStatus {
     OUT_FOR_DELIVERY,      // Delivery partner delivering
     DELIVERED,             // Customer received
     CANCELLED,
-    CANCEL_REQUESTED;
+    CANCEL_REQUESTED,
+    EXPIRED;               // Never paid; stock hold ran out
 
     public static OrderStatus fromString(String value) {
         if (value == null || value.isBlank()) {
@@ -0,0 +1,9 @@
+package com.nisanth.foodapi.enumeration;
+
+/** Side effects of a paid order, run by OutboxService after /verify returns. */
+public enum OutboxEventType {
+    ORDER_COUNTS,         // food.orderCount += 1
+    SOLD_COUNT,           // food.soldCount += qty (and best-seller flag)
+    CLEAR_CART,           // empty the buyer's cart
+    CONFIRMATION_EMAIL    // order-success-email over SMTP
+}
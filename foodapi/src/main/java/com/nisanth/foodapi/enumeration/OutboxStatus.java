@@ -0,0 +1,7 @@
+package com.nisanth.foodapi.enumeration;
+
+public enum OutboxStatus {
+    PENDING,   // waiting for (another) attempt
+    DONE,      // ran successfully
+    DEAD       // gave up after outbox.max-attempts; retried only by an admin
+}
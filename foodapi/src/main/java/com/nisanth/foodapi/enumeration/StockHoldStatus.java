@@ -0,0 +1,7 @@
+package com.nisanth.foodapi.enumeration;
+
+public enum StockHoldStatus {
+    HELD,       // stock taken out for an unpaid order
+    CONSUMED,   // order paid, stock sold
+    RELEASED    // stock put back (expired or cancelled before payment)
+}
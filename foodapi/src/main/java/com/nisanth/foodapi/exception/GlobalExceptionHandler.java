@@ -1,5 +1,6 @@
 package com.nisanth.foodapi.exception;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -20,4 +21,24 @@ public class GlobalExceptionHandler {
 
         return new ResponseEntity<>(body, ex.getStatusCode());
     }
+
+    // a whole-document save raced a targeted update of the same order
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, Object>> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("message", "The record was changed by someone else, please reload and retry");
+        body.put("status", HttpStatus.CONFLICT.value());
+
+        return new ResponseEntity<>(body, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<Map<String, Object>> handleInsufficientStockException(InsufficientStockException ex) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("message", ex.getReason());
+        body.put("status", ex.getStatusCode().value());
+        body.put("shortItems", ex.getShortages());
+
+        return new ResponseEntity<>(body, ex.getStatusCode());
+    }
 }
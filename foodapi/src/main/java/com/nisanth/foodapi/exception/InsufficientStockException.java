@@ -0,0 +1,29 @@
+package com.nisanth.foodapi.exception;
+
+import com.nisanth.foodapi.io.food.StockShortage;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Thrown when an order cannot be reserved as a whole; lists every short line.
+ */
+public class InsufficientStockException extends ResponseStatusException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<StockShortage> shortages;
+
+    public InsufficientStockException(List<StockShortage> shortages) {
+        super(HttpStatus.CONFLICT, "Insufficient stock for: " + shortages.stream()
+                .map(s -> s.getFoodName() != null ? s.getFoodName() : s.getFoodId())
+                .collect(Collectors.joining(", ")));
+        this.shortages = List.copyOf(shortages);
+    }
+
+    public List<StockShortage> getShortages() {
+        return shortages;
+    }
+}
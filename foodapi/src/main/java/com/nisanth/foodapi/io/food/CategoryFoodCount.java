@@ -0,0 +1,11 @@
+package com.nisanth.foodapi.io.food;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class CategoryFoodCount {
+    private String id;          // categoryId (group key)
+    private long foodCount;
+}
@@ -0,0 +1,11 @@
+package com.nisanth.foodapi.io.food;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class FoodOrderCount {
+    private String id;          // foodId (group key)
+    private long orderCount;
+}
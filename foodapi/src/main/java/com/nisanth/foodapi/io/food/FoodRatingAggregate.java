@@ -0,0 +1,15 @@
+package com.nisanth.foodapi.io.food;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+public class FoodRatingAggregate {
+    private String id;          // foodId (group key)
+    private long ratingSum;
+    private int ratingCount;
+    private Map<String, Integer> ratingHistogram;   // "1".."5" → count
+}
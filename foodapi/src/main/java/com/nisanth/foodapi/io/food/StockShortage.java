@@ -0,0 +1,15 @@
+package com.nisanth.foodapi.io.food;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockShortage {
+    private String foodId;
+    private String foodName;    // null when the food does not exist
+    private int requested;
+    private int available;
+}
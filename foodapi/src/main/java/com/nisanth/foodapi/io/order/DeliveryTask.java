@@ -0,0 +1,25 @@
+package com.nisanth.foodapi.io.order;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/** What the delivery-partner app shows for one order in a partner's queue. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryTask {
+    private String id;
+    private String orderStatus;
+    private String paymentStatus;
+    private double amount;
+    private String userAddress;
+    private String phoneNumber;
+    private String currentHub;
+    private List<String> items;     // "Name x2"
+    private String createdDate;
+}
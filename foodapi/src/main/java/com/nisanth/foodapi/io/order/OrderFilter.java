@@ -0,0 +1,24 @@
+package com.nisanth.foodapi.io.order;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/** Server-side filters of the admin order listing; null fields don't filter. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderFilter {
+    private String userId;
+    private String phone;
+    private String status;          // OrderStatus name
+    private String paymentStatus;
+    private LocalDate from;         // inclusive, by createdDate
+    private LocalDate to;           // inclusive
+    private String courier;
+    private String coupon;
+}
@@ -27,6 +27,7 @@ public class OrderResponse {
     private String createdDate; // Add this
     private String courierName;
     private String courierTrackingId;
+    private String currentHub;
 
     private String courierTrackUrl;
     private List<DeliveryMessage> deliveryMessages;
@@ -0,0 +1,41 @@
+package com.nisanth.foodapi.io.order;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One row of an order list. Loaded with a field projection, so timelines,
+ * hub history, status timestamps, POD images and full item snapshots stay in
+ * the database until the detail view asks for the order by id.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummary {
+    private String id;
+    private String userId;
+    private String email;
+    private String phoneNumber;
+    private String userAddress;
+    private double amount;
+    private String paymentStatus;
+    private String orderStatus;
+    private String courierName;
+    private String currentHub;
+    private String assignedDeliveryBoyId;
+    private String createdDate;
+    private List<Line> orderedItems;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Line {
+        private String name;
+        private Integer quantity;
+    }
+}
@@ -0,0 +1,22 @@
+package com.nisanth.foodapi.io.order;
+
+import com.nisanth.foodapi.io.util.DeliveryMessage;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One bucket of an order's delivery timeline, oldest message first. Pass
+ * {@code nextCursor} back as {@code cursor} for the bucket before it; it is
+ * null once the start of the timeline is reached.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimelinePage {
+    private List<DeliveryMessage> messages;
+    private String nextCursor;
+    private boolean hasMore;
+}
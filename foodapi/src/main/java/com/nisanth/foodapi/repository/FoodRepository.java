@@ -1,6 +1,7 @@
 package com.nisanth.foodapi.repository;
 
 import com.nisanth.foodapi.entity.FoodEntity;
+import com.nisanth.foodapi.io.food.CategoryFoodCount;
 import com.nisanth.foodapi.io.analytics.LowStockDTO;
 import com.nisanth.foodapi.io.analytics.TopSellingDTO;
 import org.springframework.data.domain.Page;
@@ -17,6 +18,13 @@ public interface FoodRepository extends MongoRepository<FoodEntity, String> {
     // Count how many foods are linked to a specific categoryId
     long countByCategoryIdsContaining(String categoryId);
 
+    // Food count for every category in one pass (categories without foods are absent)
+    @Aggregation(pipeline = {
+            "{ $unwind: '$categoryIds' }",
+            "{ $group: { _id: '$categoryIds', foodCount: { $sum: 1 } } }"
+    })
+    List<CategoryFoodCount> countFoodsPerCategory();
+
     // Find all foods that belong to a specific categoryId
     List<FoodEntity> findByCategoryIdsContaining(String categoryId);
 
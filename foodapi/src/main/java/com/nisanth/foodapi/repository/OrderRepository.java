@@ -2,6 +2,7 @@ package com.nisanth.foodapi.repository;
 
 import com.nisanth.foodapi.entity.OrderEntity;
 import com.nisanth.foodapi.io.analytics.TopSellingDTO;
+import com.nisanth.foodapi.io.food.FoodOrderCount;
 import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
@@ -12,13 +13,17 @@ import java.util.Optional;
 @Repository
 public interface OrderRepository extends MongoRepository<OrderEntity,String> {
 
-   List<OrderEntity> findByUserId(String userId);
-
-   List<OrderEntity> findByPhoneNumber(String phoneNumber);
-
    Optional<OrderEntity> findByRazorpayOrderId(String razorpayOrderId);
 
-   long countByOrderedItemsFoodId(String foodId);
+   // Paid, non-cancelled orders per food whose ORDER_COUNTS effect has run (rebuild of FoodEntity.orderCount only)
+   @Aggregation(pipeline = {
+           "{ $match: { paymentStatus: 'paid', orderStatus: { $ne: 'CANCELLED' }, 'paidEffectsApplied.ORDER_COUNTS': true } }",
+           "{ $unwind: '$orderedItems' }",
+           "{ $match: { 'orderedItems.type': 'FOOD' } }",
+           "{ $group: { _id: { food: '$orderedItems.foodId', order: '$_id' } } }",
+           "{ $group: { _id: '$_id.food', orderCount: { $sum: 1 } } }"
+   })
+   List<FoodOrderCount> countPaidOrdersPerFood();
 
    @Aggregation(pipeline = {
            "{ $unwind: '$orderedItems' }",
@@ -1,9 +1,25 @@
 package com.nisanth.foodapi.repository;
 
 import com.nisanth.foodapi.entity.ReviewEntity;
+import com.nisanth.foodapi.io.food.FoodRatingAggregate;
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
+
 import java.util.List;
 
 public interface ReviewRepository extends MongoRepository<ReviewEntity, String> {
     List<ReviewEntity> findByFoodId(String foodId);
+
+    // Rating sum / count / per-star histogram for every reviewed food (backfill only)
+    @Aggregation(pipeline = {
+            "{ $group: { _id: { foodId: '$foodId', rating: '$rating' }, count: { $sum: 1 } } }",
+            "{ $group: { " +
+                    " _id: '$_id.foodId', " +
+                    " ratingCount: { $sum: '$count' }, " +
+                    " ratingSum: { $sum: { $multiply: ['$_id.rating', '$count'] } }, " +
+                    " stars: { $push: { k: { $toString: '$_id.rating' }, v: '$count' } } " +
+                    "} }",
+            "{ $project: { ratingCount: 1, ratingSum: 1, ratingHistogram: { $arrayToObject: '$stars' } } }"
+    })
+    List<FoodRatingAggregate> getRatingAggregates();
 }
@@ -0,0 +1,15 @@
+package com.nisanth.foodapi.repository;
+
+import com.nisanth.foodapi.entity.StockHoldEntity;
+import com.nisanth.foodapi.enumeration.StockHoldStatus;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface StockHoldRepository extends MongoRepository<StockHoldEntity, String> {
+
+    Optional<StockHoldEntity> findByOrderId(String orderId);
+
+    List<StockHoldEntity> findByStatus(StockHoldStatus status);
+}
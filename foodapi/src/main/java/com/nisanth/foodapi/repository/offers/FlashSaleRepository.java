@@ -17,6 +17,9 @@ public interface FlashSaleRepository
             LocalDateTime end
     );
 
+    // active sales that are running now or still to come
+    List<FlashSaleEntity> findByActiveTrueAndEndTimeAfter(LocalDateTime time);
+
     List<FlashSaleEntity>
     findByActiveTrueAndStartTimeBeforeAndEndTimeAfter(
             LocalDateTime start,
@@ -1,15 +1,19 @@
 package com.nisanth.foodapi.service;
 
 import com.nisanth.foodapi.entity.Category;
+import com.nisanth.foodapi.io.food.CategoryFoodCount;
 import com.nisanth.foodapi.repository.CategoryRepository;
 import com.nisanth.foodapi.repository.FoodRepository;
+import com.nisanth.foodapi.service.cache.ResponseCache;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.util.List;
+import java.time.Duration;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,24 +25,72 @@ public class CategoryService {
     @Autowired
     private FoodRepository foodRepository;
 
+    @Autowired
+    private ResponseCache responseCache;
+
+    // id <-> name dictionary; categories rarely change, so it is loaded once,
+    // dropped by addCategory / deleteCategory, and reloaded after max-age so
+    // changes made on other instances show up too
+    private volatile Dictionary dictionary;
+    private long dictionaryGeneration;
+
+    // categoryId -> food count from one aggregation; dropped by food writes and after max-age
+    private volatile Map<String, Long> foodCounts;
+    private volatile long foodCountsLoadedAt;
+    private long foodCountsGeneration;
+
+    @Value("${catalog.search.max-age:PT5M}")
+    private Duration maxAge;
+
     // Fetch all categories with food count
     public List<CategoryWithCount> getAllCategories() {
-        List<Category> categories = categoryRepository.findAll();
+        List<Category> categories = getCategories();
+        Map<String, Long> counts = foodCounts();
         return categories.stream()
                 .map(cat -> new CategoryWithCount(
                         cat.getId(),
                         cat.getName(),
-                        foodRepository.countByCategoryIdsContaining(cat.getId()) // ✅ use ID not name
+                        counts.getOrDefault(cat.getId(), 0L) // ✅ use ID not name
                 ))
                 .collect(Collectors.toList());
     }
 
+    /** Call after a food is created, deleted or its categoryIds change. */
+    public synchronized void invalidateFoodCounts() {
+        foodCountsGeneration++;
+        foodCounts = null;
+    }
+
+    private Map<String, Long> foodCounts() {
+        Map<String, Long> current = foodCounts;
+        if (current != null && !isOld(foodCountsLoadedAt)) return current;
+
+        long generation;
+        synchronized (this) {
+            generation = foodCountsGeneration;
+        }
+        Map<String, Long> loaded = new HashMap<>();
+        for (CategoryFoodCount c : foodRepository.countFoodsPerCategory()) {
+            loaded.put(c.getId(), c.getFoodCount());
+        }
+        current = Collections.unmodifiableMap(loaded);
+        synchronized (this) {
+            if (generation == foodCountsGeneration) {
+                foodCounts = current;
+                foodCountsLoadedAt = System.currentTimeMillis();
+            }
+        }
+        return current;
+    }
+
     // Add new category
     public Category addCategory(Category category) {
         if (categoryRepository.existsByName(category.getName())) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Category already exists");
         }
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        invalidateDictionary();
+        return saved;
     }
 
     // Delete category
@@ -54,6 +106,80 @@ public class CategoryService {
             );
         }
 
+        categoryRepository.deleteById(category.getId());
+        invalidateDictionary();
+    }
+
+    // ------------------- DICTIONARY -------------------
+
+    public List<Category> getCategories() {
+        return dictionary().categories;
+    }
+
+    /** Category name for an id, or null if the id is unknown. */
+    public String nameOf(String id) {
+        return dictionary().namesById.get(id);
+    }
+
+    /** Names for the given ids, in the same order; unknown ids are skipped. */
+    public List<String> namesOf(Collection<String> ids) {
+        List<String> names = new ArrayList<>();
+        if (ids == null) return names;
+        Map<String, String> namesById = dictionary().namesById;
+        for (String id : ids) {
+            String name = namesById.get(id);
+            if (name != null) names.add(name);
+        }
+        return names;
+    }
+
+    /** Case-insensitive lookup of a category id by name. */
+    public Optional<String> idOf(String name) {
+        if (name == null) return Optional.empty();
+        return Optional.ofNullable(dictionary().idsByName.get(name.toLowerCase(Locale.ROOT)));
+    }
+
+    private Dictionary dictionary() {
+        Dictionary current = dictionary;
+        if (current != null && !isOld(current.loadedAt)) return current;
+
+        long generation;
+        synchronized (this) {
+            generation = dictionaryGeneration;
+        }
+        current = new Dictionary(categoryRepository.findAll());
+        synchronized (this) {
+            // a write during the load wins: don't install what may already be stale
+            if (generation == dictionaryGeneration) dictionary = current;
+        }
+        return current;
+    }
+
+    private boolean isOld(long loadedAt) {
+        return System.currentTimeMillis() - loadedAt > maxAge.toMillis();
+    }
+
+    private synchronized void invalidateDictionary() {
+        dictionaryGeneration++;
+        dictionary = null;
+        responseCache.invalidate(ResponseCache.FOOD_CATEGORIES);
+    }
+
+    private static final class Dictionary {
+        private final List<Category> categories;
+        private final Map<String, String> namesById = new HashMap<>();
+        private final Map<String, String> idsByName = new HashMap<>();
+        private final long loadedAt = System.currentTimeMillis();
+
+        private Dictionary(List<Category> categories) {
+            this.categories = List.copyOf(categories);
+            for (Category c : categories) {
+                namesById.put(c.getId(), c.getName());
+                if (c.getName() != null) {
+                    idsByName.putIfAbsent(c.getName().toLowerCase(Locale.ROOT), c.getId());
+                }
+            }
+        }
     }
 
 
@@ -7,7 +7,9 @@ import com.nisanth.foodapi.io.food.FoodResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface FoodService {
 
@@ -58,9 +60,21 @@ public interface FoodService {
      */
     void releaseReservedStock(String foodId, int qty);
 
+    /**
+     * Pin a food to hot-stock mode (reservations served from in-memory
+     * striped counters) or turn it off and hand the units back to Mongo.
+     */
+    void setHotStock(String foodId, boolean enabled);
+
 
         FoodResponse convertToResponse(FoodEntity food);
 
+    /**
+     * Bulk variant of convertToResponse: resolves flash sales, categories,
+     * ratings and order counts with one query each for the whole list.
+     */
+    List<FoodResponse> convertToResponses(List<FoodEntity> foods);
+
 
     double getEffectivePrice(FoodEntity food);
 
@@ -70,5 +84,17 @@ public interface FoodService {
 
     void increaseSoldCount(String foodId, int qty);
 
+    /**
+     * Adds the sold quantity (foodId -> qty) to each food's soldCount with
+     * one bulk write of $inc updates.
+     */
+    void increaseSoldCounts(Map<String, Integer> quantities);
+
+    /**
+     * Adds delta (+1 when an order is paid, -1 when a paid order is cancelled)
+     * to the orderCount counter of each food, in one update.
+     */
+    void adjustOrderCounts(Collection<String> foodIds, int delta);
+
 }
 
@@ -1,8 +1,10 @@
 package com.nisanth.foodapi.service;
 
+import com.nisanth.foodapi.io.order.DeliveryTask;
+import com.nisanth.foodapi.io.order.OrderFilter;
+import com.nisanth.foodapi.io.order.OrderPage;
 import com.nisanth.foodapi.io.order.OrderRequest;
 import com.nisanth.foodapi.io.order.OrderResponse;
-import com.razorpay.RazorpayException;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -10,19 +12,19 @@ import java.util.Map;
 
 public interface OrderService {
 
-   OrderResponse createOrderWithPayment(OrderRequest request) throws RazorpayException;
+   OrderResponse createOrderWithPayment(OrderRequest request);
 
    // once the complete the paymeny we had to verify that
   void verifyPayment(Map<String,String> paymentData,String status);
 
   // get list of orders
-   List<OrderResponse> getUserOrders();
+   OrderPage getUserOrders(String cursor, int size);
 
    // remove the order for the particular user id
   void   removeOrder(String orderId);
 
-  // admin panel-  retrive all orders
-   List<OrderResponse> getOrdersOfAllUsers();
+  // admin panel-  retrive orders one keyset page at a time, newest first
+   OrderPage getOrdersPage(OrderFilter filter, String cursor, int size);
 
    // update the order status
    void  updateOrderStatus(String orderId,String status);
@@ -35,7 +37,6 @@ public interface OrderService {
 
     OrderResponse getOrderById(String orderId);
 
-    List<OrderResponse>  getOrdersFiltered(String userId, String phone);
 
     void updateCourierDetails(String orderId, String courierName, String trackingId);
 
@@ -43,8 +44,9 @@ public interface OrderService {
 
     // in OrderService interface
     void setOrderStatusWithTimestamp(String orderId, String status, String actor, String message,String reason);
-    List<OrderResponse> getOrdersForHub(String hubName);
-    List<OrderResponse> getOrdersForDeliveryBoy(String deliveryBoyId);
+    OrderPage getHubQueue(String hubName, List<String> statuses, String cursor, int size);
+    OrderResponse recordHubArrival(String orderId, String hubName, String staffName, String message);
+    List<DeliveryTask> getDeliveryQueue(String deliveryBoyId);
     String savePodImage(String orderId, MultipartFile file) throws Exception;
     void assignDeliveryBoy(String orderId, String deliveryBoyId);
 
@@ -1,27 +1,24 @@
 package com.nisanth.foodapi.service;
 
+import com.nisanth.foodapi.entity.FlashSaleEntity;
 import com.nisanth.foodapi.entity.FoodEntity;
-import com.nisanth.foodapi.repository.offers.FlashSaleRepository;
+import com.nisanth.foodapi.service.catalog.FlashSaleIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import com.nisanth.foodapi.entity.*;
 import java.time.LocalDateTime;
 
 @Service
 public class PricingServiceImpl implements PricingService {
 
     @Autowired
-    private FlashSaleRepository flashSaleRepository;
+    private FlashSaleIndex flashSaleIndex;
 
+    // single price source for catalog and checkout
     @Override
     public double getEffectivePrice(FoodEntity food) {
-        return flashSaleRepository
-                .findByFoodIdAndActiveTrueAndStartTimeBeforeAndEndTimeAfter(
-                        food.getId(),
-                        LocalDateTime.now(),
-                        LocalDateTime.now()
-                )
+        return flashSaleIndex
+                .activeSale(food.getId(), LocalDateTime.now())
                 .map(FlashSaleEntity::getSalePrice)
                 .orElse(food.getSellingPrice());
     }
@@ -7,7 +7,12 @@ import com.nisanth.foodapi.io.review.ReviewRequest;
 import com.nisanth.foodapi.io.review.ReviewResponse;
 import com.nisanth.foodapi.repository.FoodRepository;
 import com.nisanth.foodapi.repository.ReviewRepository;
+import com.nisanth.foodapi.service.catalog.CatalogCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -31,6 +36,8 @@ public class ReviewServiceImpl implements ReviewService {
     private final FoodRepository foodRepository;
     private final SettingService settingService;
     private final S3Client s3Client;
+    private final CatalogCache catalogCache;
+    private final MongoTemplate mongoTemplate;
 
     @Override
     public List<ReviewEntity> getReviewsByFoodId(String foodId) {
@@ -60,7 +67,10 @@ public class ReviewServiceImpl implements ReviewService {
                 .createdAt(Instant.now())
                 .build();
 
-        return reviewRepository.save(review);
+        ReviewEntity saved = reviewRepository.save(review);
+        applyRating(foodId, saved.getRating(), 1);
+        catalogCache.invalidateFood(foodId);
+        return saved;
     }
 
     @Override
@@ -90,10 +100,14 @@ public class ReviewServiceImpl implements ReviewService {
 
     @Override
     public void deleteReview(String id) {
-        if (!reviewRepository.existsById(id)) {
+        // only the call that actually removed the review takes its rating off the food
+        ReviewEntity review = mongoTemplate.findAndRemove(
+                Query.query(Criteria.where("_id").is(id)), ReviewEntity.class);
+        if (review == null) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Review not found");
         }
-        reviewRepository.deleteById(id);
+        applyRating(review.getFoodId(), review.getRating(), -1);
+        catalogCache.invalidateFood(review.getFoodId());
     }
 
     @Override
@@ -118,6 +132,24 @@ public class ReviewServiceImpl implements ReviewService {
         return reviewRepository.save(review);
     }
 
+    // Atomic $inc of the rating aggregates on the food document (delta = +1 add, -1 delete)
+    private void applyRating(String foodId, int rating, int delta) {
+        if (foodId == null) return;
+
+        Update update = new Update()
+                .inc("ratingSum", (long) rating * delta)
+                .inc("ratingCount", delta);
+        if (rating >= 1 && rating <= 5) {
+            update.inc("ratingHistogram." + rating, delta);
+        }
+
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(foodId)),
+                update,
+                FoodEntity.class
+        );
+    }
+
     private String uploadFile(MultipartFile file) {
         String extension = file.getOriginalFilename()
                 .substring(file.getOriginalFilename().lastIndexOf(".") + 1);
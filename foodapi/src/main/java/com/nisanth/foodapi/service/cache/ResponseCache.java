@@ -0,0 +1,190 @@
+package com.nisanth.foodapi.service.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.*;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized-response cache for heavily polled public GET endpoints.
+ *
+ * Each key holds the JSON bytes (plus a gzipped copy for larger bodies) and an
+ * ETag derived from the content hash. A request whose If-None-Match matches
+ * gets a 304 with no body; otherwise the stored bytes are written as-is, so a
+ * hit costs neither a Mongo query nor a Jackson pass. Admin write endpoints
+ * call {@link #invalidate(String...)} for the keys they affect.
+ */
+@Component
+@RequiredArgsConstructor
+public class ResponseCache {
+
+    public static final String FOOD_CATEGORIES = "foods:categories";
+    public static final String ACTIVE_COMBOS = "combos:active";
+    public static final String ACTIVE_FLASH_SALES = "flash-sales:active";
+    public static final String ACTIVE_PROMOTIONS = "promotions:active";
+    public static final String ACTIVE_COUPONS = "coupons:active";
+    public static final String SETTINGS_TAX = "settings:tax";
+
+    private static final int GZIP_MIN_BYTES = 1024;
+
+    private final ObjectMapper objectMapper;
+
+    // safety net for writes that bypass the admin endpoints (e.g. manual DB edits)
+    @Value("${response.cache.max-age:PT10M}")
+    private Duration maxAge;
+
+    /** A freshly loaded body and the time it stops being valid (null = until invalidated). */
+    public record Loaded(Object body, LocalDateTime validUntil) {}
+
+    private record Entry(byte[] json, byte[] gzipped, String etag, LocalDateTime expiresAt) {}
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Long> generations = new HashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+
+    public ResponseEntity<byte[]> serve(String key, HttpServletRequest request, Supplier<?> loader) {
+        return serveLoaded(key, request, () -> new Loaded(loader.get(), null));
+    }
+
+    public ResponseEntity<byte[]> serveLoaded(String key, HttpServletRequest request, Supplier<Loaded> loader) {
+        Entry entry = entries.get(key);
+        if (entry == null || !LocalDateTime.now().isBefore(entry.expiresAt())) {
+            misses.incrementAndGet();
+            entry = load(key, loader);
+        } else {
+            hits.incrementAndGet();
+        }
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), entry.etag())) {
+            notModified.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(entry.etag())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(entry.etag())
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+
+        if (entry.gzipped() != null && acceptsGzip(request)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(entry.gzipped());
+        }
+        return response.body(entry.json());
+    }
+
+    public void invalidate(String... keys) {
+        synchronized (generations) {
+            for (String key : keys) {
+                generations.merge(key, 1L, Long::sum);
+                entries.remove(key);
+            }
+        }
+    }
+
+    private Entry load(String key, Supplier<Loaded> loader) {
+        long generation;
+        synchronized (generations) {
+            generation = generations.getOrDefault(key, 0L);
+        }
+
+        Loaded loaded = loader.get();
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(loaded.body());
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error serializing response");
+        }
+
+        LocalDateTime expiresAt = LocalDateTime.now().plus(maxAge);
+        if (loaded.validUntil() != null && loaded.validUntil().isBefore(expiresAt)) {
+            expiresAt = loaded.validUntil();
+        }
+
+        Entry entry = new Entry(
+                json,
+                json.length >= GZIP_MIN_BYTES ? gzip(json) : null,
+                etag(json),
+                expiresAt
+        );
+
+        synchronized (generations) {
+            // an invalidation during the load wins: serve this once, don't keep it
+            if (generation == generations.getOrDefault(key, 0L)) entries.put(key, entry);
+        }
+        return entry;
+    }
+
+    // ------------------- HTTP -------------------
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        String bare = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.equals("*") || stripWeak(c).equals(bare)) return true;
+        }
+        return false;
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return accept != null && accept.toLowerCase(Locale.ROOT).contains("gzip");
+    }
+
+    // weak: the same tag covers the plain and the gzipped representation
+    private static String etag(byte[] json) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(json);
+            return "W/\"" + Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(Arrays.copyOf(hash, 16)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // SHA-256 is always available
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 2);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(json);
+        } catch (IOException e) {
+            return null;
+        }
+        byte[] zipped = out.toByteArray();
+        return zipped.length < json.length ? zipped : null;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", new TreeSet<>(entries.keySet()));
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("notModified", notModified.get());
+        return stats;
+    }
+}
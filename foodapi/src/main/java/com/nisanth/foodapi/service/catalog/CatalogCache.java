@@ -0,0 +1,212 @@
+package com.nisanth.foodapi.service.catalog;
+
+import com.nisanth.foodapi.entity.FoodEntity;
+import com.nisanth.foodapi.io.food.FoodResponse;
+import com.nisanth.foodapi.repository.FoodRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the current {@link CatalogSnapshot} for the storefront read endpoints.
+ *
+ * Writes (food edits, stock changes, flash sales, reviews) only mark the
+ * affected food ids dirty. A background refresher patches just those foods
+ * with one bulk assembly, batching the marks of {@code catalog.snapshot.patch-delay};
+ * readers keep getting the previous snapshot meanwhile, so checkouts never
+ * put a Mongo round trip on the storefront read path. A full rebuild happens
+ * on first use, on {@link #invalidateAll()}, when a flash sale starts or ends
+ * (in the reader, since prices change), when {@link FlashSaleIndex} picked up a
+ * sale change and after {@code catalog.snapshot.max-age}.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogCache {
+
+    private final FoodRepository foodRepository;
+    private final FlashSaleIndex flashSaleIndex;
+    private final FoodResponseAssembler assembler;
+
+    @Value("${catalog.snapshot.max-age:PT5M}")
+    private Duration maxAge;
+
+    @Value("${catalog.snapshot.patch-delay:PT0.2S}")
+    private Duration patchDelay;
+
+    private volatile CatalogSnapshot snapshot;
+    private volatile boolean fullRebuildRequested = true;
+    private volatile long flashSaleVersion = -1;   // FlashSaleIndex.version() the snapshot was built with
+    private final Set<String> dirtyIds = ConcurrentHashMap.newKeySet();
+    private final Object lock = new Object();
+
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+    private ScheduledExecutorService refresher;
+
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+    private final AtomicLong patches = new AtomicLong();
+    private final AtomicLong behind = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "catalog-refresh");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (refresher != null) refresher.shutdownNow();
+    }
+
+    /**
+     * Returns the current snapshot. Pending patches and max-age rebuilds are
+     * left to the refresher; only a missing snapshot or a flash-sale start/end
+     * is built here, before answering.
+     */
+    public CatalogSnapshot current() {
+        CatalogSnapshot snap = snapshot;
+        if (snap != null && isFresh(snap)) {
+            hits.incrementAndGet();
+            return snap;
+        }
+        if (snap != null && !snap.isExpired(LocalDateTime.now())) {
+            behind.incrementAndGet();
+            queueRefresh();
+            return snap;
+        }
+
+        misses.incrementAndGet();
+        synchronized (lock) {
+            return refresh();
+        }
+    }
+
+    /** Call after a write to a single food (or anything shown on its card). */
+    public void invalidateFood(String foodId) {
+        if (foodId == null) return;
+        dirtyIds.add(foodId);
+        queueRefresh();
+    }
+
+    public void invalidateFoods(Collection<String> foodIds) {
+        foodIds.forEach(this::invalidateFood);
+    }
+
+    /** Call after a write that can affect many foods (e.g. category changes). */
+    public void invalidateAll() {
+        fullRebuildRequested = true;
+        queueRefresh();
+    }
+
+    // one refresh in flight at a time; marks that arrive while it runs queue the next one
+    private void queueRefresh() {
+        if (refresher == null || !refreshQueued.compareAndSet(false, true)) return;
+        try {
+            refresher.schedule(() -> {
+                refreshQueued.set(false);
+                try {
+                    synchronized (lock) {
+                        refresh();
+                    }
+                } catch (Exception e) {
+                    System.out.println("Catalog refresh failed: " + e.getMessage());
+                }
+            }, patchDelay.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            refreshQueued.set(false);   // shutting down
+        }
+    }
+
+    // caller holds lock
+    private CatalogSnapshot refresh() {
+        CatalogSnapshot snap = snapshot;
+        if (snap == null || fullRebuildRequested || isStale(snap)) return rebuild();
+        if (!dirtyIds.isEmpty()) return patch(snap);
+        return snap;
+    }
+
+    private boolean isFresh(CatalogSnapshot snap) {
+        return !fullRebuildRequested && dirtyIds.isEmpty() && !isStale(snap);
+    }
+
+    private boolean isStale(CatalogSnapshot snap) {
+        LocalDateTime now = LocalDateTime.now();
+        return snap.isExpired(now) || snap.getBuiltAt().plus(maxAge).isBefore(now)
+                || flashSaleVersion != flashSaleIndex.version();
+    }
+
+    private CatalogSnapshot rebuild() {
+        // clear first: marks that arrive while we load stay queued for the next patch
+        fullRebuildRequested = false;
+        dirtyIds.clear();
+        flashSaleVersion = flashSaleIndex.version();
+
+        List<FoodEntity> foods = foodRepository.findAll();
+        List<FoodResponse> responses = assembler.toResponses(foods);
+
+        List<CatalogSnapshot.Entry> entries = new ArrayList<>(foods.size());
+        for (int i = 0; i < foods.size(); i++) {
+            entries.add(new CatalogSnapshot.Entry(foods.get(i), responses.get(i)));
+        }
+
+        CatalogSnapshot snap = new CatalogSnapshot(versions.incrementAndGet(), entries, nextPriceChange());
+        snapshot = snap;
+        rebuilds.incrementAndGet();
+        return snap;
+    }
+
+    private CatalogSnapshot patch(CatalogSnapshot current) {
+        List<String> ids = new ArrayList<>(dirtyIds);
+        dirtyIds.removeAll(ids);
+
+        List<FoodEntity> foods = foodRepository.findAllById(ids);
+        List<FoodResponse> responses = assembler.toResponses(foods);
+
+        List<CatalogSnapshot.Entry> upserts = new ArrayList<>(foods.size());
+        Set<String> removed = new HashSet<>(ids);
+        for (int i = 0; i < foods.size(); i++) {
+            upserts.add(new CatalogSnapshot.Entry(foods.get(i), responses.get(i)));
+            removed.remove(foods.get(i).getId());
+        }
+
+        CatalogSnapshot snap = current.patch(versions.incrementAndGet(), upserts, removed, nextPriceChange());
+        snapshot = snap;
+        patches.incrementAndGet();
+        return snap;
+    }
+
+    // earliest future start or end of an active flash sale
+    private LocalDateTime nextPriceChange() {
+        return flashSaleIndex.nextTransition(LocalDateTime.now());
+    }
+
+    public Map<String, Object> stats() {
+        CatalogSnapshot snap = snapshot;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("version", snap != null ? snap.getVersion() : 0);
+        stats.put("foods", snap != null ? snap.size() : 0);
+        stats.put("builtAt", snap != null ? snap.getBuiltAt() : null);
+        stats.put("validUntil", snap != null ? snap.getValidUntil() : null);
+        stats.put("pendingPatches", dirtyIds.size());
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("servedBehind", behind.get());
+        stats.put("rebuilds", rebuilds.get());
+        stats.put("patches", patches.get());
+        return stats;
+    }
+}
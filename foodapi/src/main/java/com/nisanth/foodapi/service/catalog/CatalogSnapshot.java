@@ -0,0 +1,169 @@
+package com.nisanth.foodapi.service.catalog;
+
+import com.nisanth.foodapi.entity.FoodEntity;
+import com.nisanth.foodapi.io.food.FoodResponse;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Immutable, versioned view of the whole storefront catalog.
+ * A new instance is created for every rebuild or patch; readers never see
+ * a half-updated catalog.
+ */
+public final class CatalogSnapshot {
+
+    private static final int HOME_LIST_SIZE = 8;
+
+    private static final Comparator<Entry> DEFAULT_ORDER =
+            Comparator.comparing((Entry e) -> e.food().isSponsored()).reversed()
+                    .thenComparing(Comparator.comparing((Entry e) -> e.food().isFeatured()).reversed())
+                    .thenComparing(e -> e.food().getId());
+
+    record Entry(FoodEntity food, FoodResponse response) {}
+
+    private final long version;
+    private final LocalDateTime builtAt;
+    // prices flip when a flash sale starts or ends, so the snapshot expires then
+    private final LocalDateTime validUntil;
+
+    private final Map<String, Entry> byId;
+    private final List<Entry> ordered;          // sponsored, featured, _id
+    private final List<FoodResponse> allFoods;
+    private final List<FoodResponse> bestSellers;
+    private final List<FoodResponse> topSelling;
+    private final List<FoodResponse> featured;
+
+    CatalogSnapshot(long version, Collection<Entry> entries, LocalDateTime validUntil) {
+        this.version = version;
+        this.builtAt = LocalDateTime.now();
+        this.validUntil = validUntil;
+
+        List<Entry> sorted = new ArrayList<>(entries);
+        sorted.sort(DEFAULT_ORDER);
+        this.ordered = Collections.unmodifiableList(sorted);
+
+        Map<String, Entry> index = new HashMap<>();
+        for (Entry e : sorted) index.put(e.food().getId(), e);
+        this.byId = Collections.unmodifiableMap(index);
+
+        this.allFoods = responses(sorted.stream());
+
+        Comparator<Entry> bySoldDesc =
+                Comparator.comparingLong((Entry e) -> e.food().getSoldCount()).reversed();
+
+        this.bestSellers = responses(sorted.stream()
+                .filter(e -> e.food().isBestSeller())
+                .sorted(bySoldDesc)
+                .limit(HOME_LIST_SIZE));
+
+        this.topSelling = responses(sorted.stream()
+                .sorted(bySoldDesc)
+                .limit(HOME_LIST_SIZE));
+
+        this.featured = responses(sorted.stream()
+                .filter(e -> e.food().isFeatured())
+                .limit(HOME_LIST_SIZE));
+    }
+
+    private static List<FoodResponse> responses(Stream<Entry> entries) {
+        return entries.map(Entry::response).toList();
+    }
+
+    /**
+     * Returns a copy of this snapshot with the given entries replaced and the
+     * given ids removed.
+     */
+    CatalogSnapshot patch(long newVersion,
+                          Collection<Entry> upserts,
+                          Collection<String> removedIds,
+                          LocalDateTime newValidUntil) {
+        Map<String, Entry> next = new HashMap<>(byId);
+        removedIds.forEach(next::remove);
+        for (Entry e : upserts) next.put(e.food().getId(), e);
+        return new CatalogSnapshot(newVersion, next.values(), newValidUntil);
+    }
+
+    boolean isExpired(LocalDateTime now) {
+        return validUntil != null && !now.isBefore(validUntil);
+    }
+
+    // ------------------- READS -------------------
+
+    public Optional<FoodResponse> find(String id) {
+        return Optional.ofNullable(byId.get(id)).map(Entry::response);
+    }
+
+    public List<FoodResponse> all() {
+        return allFoods;
+    }
+
+    public List<FoodResponse> bestSellers() {
+        return bestSellers;
+    }
+
+    public List<FoodResponse> topSelling() {
+        return topSelling;
+    }
+
+    public List<FoodResponse> featured() {
+        return featured;
+    }
+
+    /**
+     * Same semantics as the Mongo-backed browse query: category by name
+     * (case-insensitive), optional price sort. When {@code searchHits} is given
+     * (ids from {@link FoodSearchIndex}, best first) only those foods are
+     * returned, in relevance order unless a price sort is requested.
+     */
+    public Page<FoodResponse> page(int page, int size, String category, List<String> searchHits, String sort) {
+        Pageable pageable = PageRequest.of(page, size);
+
+        Stream<Entry> stream = searchHits != null
+                ? searchHits.stream().map(byId::get).filter(Objects::nonNull)
+                : ordered.stream();
+
+        if (category != null && !"All".equalsIgnoreCase(category)) {
+            stream = stream.filter(e -> e.response().getCategories() != null &&
+                    e.response().getCategories().stream().anyMatch(category::equalsIgnoreCase));
+        }
+
+        if ("priceLowHigh".equals(sort)) {
+            stream = stream.sorted(Comparator.comparingDouble((Entry e) -> e.food().getSellingPrice())
+                    .thenComparing(e -> e.food().getId()));
+        } else if ("priceHighLow".equals(sort)) {
+            stream = stream.sorted(Comparator.comparingDouble((Entry e) -> e.food().getSellingPrice()).reversed()
+                    .thenComparing(e -> e.food().getId()));
+        }
+
+        List<Entry> matches = stream.toList();
+
+        int start = (int) Math.min(pageable.getOffset(), matches.size());
+        int end = Math.min(start + size, matches.size());
+
+        return new PageImpl<>(responses(matches.subList(start, end).stream()), pageable, matches.size());
+    }
+
+    // ------------------- INFO -------------------
+
+    public long getVersion() {
+        return version;
+    }
+
+    public LocalDateTime getBuiltAt() {
+        return builtAt;
+    }
+
+    public LocalDateTime getValidUntil() {
+        return validUntil;
+    }
+
+    public int size() {
+        return byId.size();
+    }
+}
@@ -0,0 +1,194 @@
+package com.nisanth.foodapi.service.catalog;
+
+import com.nisanth.foodapi.entity.FlashSaleEntity;
+import com.nisanth.foodapi.repository.offers.FlashSaleRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Active and upcoming flash sales keyed by foodId, held in memory.
+ *
+ * Every lookup compares the sale window with the caller's clock, so a price
+ * switches exactly at a sale's start and end time without asking Mongo.
+ * Loaded at startup and updated by FlashSaleController on every write; a
+ * reload every {@code catalog.flash-sales.refresh} picks up sales written on
+ * other instances, which checkout prices depend on.
+ */
+@Component
+@RequiredArgsConstructor
+public class FlashSaleIndex {
+
+    private final FlashSaleRepository flashSaleRepository;
+
+    @Value("${catalog.flash-sales.refresh:PT10S}")
+    private Duration refresh;
+
+    // foodId -> sales ordered by start time; replaced as a whole on every change
+    private volatile Map<String, List<FlashSaleEntity>> byFood;
+
+    // bumped whenever the set of sales changes, so CatalogCache can tell its prices are outdated
+    private final AtomicLong version = new AtomicLong();
+
+    private ScheduledExecutorService reloader;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        load();
+        reloader = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "flash-sale-reload");
+            t.setDaemon(true);
+            return t;
+        });
+        long millis = Math.max(1, refresh.toMillis());
+        reloader.scheduleWithFixedDelay(() -> {
+            try {
+                load();
+            } catch (Exception e) {
+                System.out.println("Flash sale reload failed: " + e.getMessage());
+            }
+        }, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (reloader != null) reloader.shutdownNow();
+    }
+
+    public synchronized void load() {
+        List<FlashSaleEntity> sales = flashSaleRepository.findByActiveTrueAndEndTimeAfter(LocalDateTime.now());
+        Map<String, List<FlashSaleEntity>> next = new HashMap<>();
+        for (FlashSaleEntity fs : sales) {
+            next.computeIfAbsent(fs.getFoodId(), k -> new ArrayList<>()).add(fs);
+        }
+        next.replaceAll((foodId, list) -> sorted(list));
+        if (!next.equals(byFood)) {
+            byFood = next;
+            version.incrementAndGet();
+        }
+    }
+
+    /** Changes whenever a sale is added, edited or removed (here or, after a reload, elsewhere). */
+    public long version() {
+        return version.get();
+    }
+
+    // ------------------- LOOKUPS -------------------
+
+    /** The sale running for this food at {@code now}, if any. */
+    public Optional<FlashSaleEntity> activeSale(String foodId, LocalDateTime now) {
+        for (FlashSaleEntity fs : index().getOrDefault(foodId, List.of())) {
+            if (isRunning(fs, now)) return Optional.of(fs);
+        }
+        return Optional.empty();
+    }
+
+    /** Running sale per food for the given ids (foods without one are absent). */
+    public Map<String, FlashSaleEntity> activeSales(Collection<String> foodIds, LocalDateTime now) {
+        Map<String, FlashSaleEntity> result = new HashMap<>();
+        for (String foodId : foodIds) {
+            activeSale(foodId, now).ifPresent(fs -> result.put(foodId, fs));
+        }
+        return result;
+    }
+
+    /** Every sale running at {@code now}. */
+    public List<FlashSaleEntity> activeSales(LocalDateTime now) {
+        List<FlashSaleEntity> result = new ArrayList<>();
+        for (List<FlashSaleEntity> sales : index().values()) {
+            for (FlashSaleEntity fs : sales) {
+                if (isRunning(fs, now)) result.add(fs);
+            }
+        }
+        return result;
+    }
+
+    /** Earliest future start or end of any sale; null when nothing is scheduled. */
+    public LocalDateTime nextTransition(LocalDateTime now) {
+        LocalDateTime next = null;
+        for (List<FlashSaleEntity> sales : index().values()) {
+            for (FlashSaleEntity fs : sales) {
+                LocalDateTime t = fs.getStartTime() != null && fs.getStartTime().isAfter(now)
+                        ? fs.getStartTime()
+                        : fs.getEndTime();
+                if (t != null && t.isAfter(now) && (next == null || t.isBefore(next))) next = t;
+            }
+        }
+        return next;
+    }
+
+    // same window as findByFoodIdAndActiveTrueAndStartTimeBeforeAndEndTimeAfter
+    private static boolean isRunning(FlashSaleEntity fs, LocalDateTime now) {
+        return fs.isActive()
+                && fs.getStartTime() != null && fs.getStartTime().isBefore(now)
+                && fs.getEndTime() != null && fs.getEndTime().isAfter(now);
+    }
+
+    // ------------------- UPDATES -------------------
+
+    /** Call after a flash sale is created or updated. */
+    public synchronized void put(FlashSaleEntity sale) {
+        Map<String, List<FlashSaleEntity>> next = withoutSale(sale.getId());
+        LocalDateTime now = LocalDateTime.now();
+        if (sale.isActive() && sale.getEndTime() != null && sale.getEndTime().isAfter(now)) {
+            List<FlashSaleEntity> list = new ArrayList<>(next.getOrDefault(sale.getFoodId(), List.of()));
+            list.add(sale);
+            next.put(sale.getFoodId(), sorted(list));
+        }
+        byFood = next;
+        version.incrementAndGet();
+    }
+
+    /** Call after a flash sale is deleted. */
+    public synchronized void remove(String saleId) {
+        byFood = withoutSale(saleId);
+        version.incrementAndGet();
+    }
+
+    // copy of the index without the given sale; finished sales are dropped on the way
+    private Map<String, List<FlashSaleEntity>> withoutSale(String saleId) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, List<FlashSaleEntity>> next = new HashMap<>();
+        for (Map.Entry<String, List<FlashSaleEntity>> e : index().entrySet()) {
+            List<FlashSaleEntity> kept = e.getValue().stream()
+                    .filter(fs -> !Objects.equals(fs.getId(), saleId))
+                    .filter(fs -> fs.getEndTime() != null && fs.getEndTime().isAfter(now))
+                    .toList();
+            if (!kept.isEmpty()) next.put(e.getKey(), kept);
+        }
+        return next;
+    }
+
+    private Map<String, List<FlashSaleEntity>> index() {
+        Map<String, List<FlashSaleEntity>> current = byFood;
+        if (current == null) {
+            synchronized (this) {
+                if (byFood == null) load();
+                current = byFood;
+            }
+        }
+        return current;
+    }
+
+    private static List<FlashSaleEntity> sorted(List<FlashSaleEntity> sales) {
+        List<FlashSaleEntity> copy = new ArrayList<>(sales);
+        copy.sort(Comparator.comparing(FlashSaleEntity::getStartTime,
+                Comparator.nullsLast(Comparator.naturalOrder())));
+        return List.copyOf(copy);
+    }
+
+    public int size() {
+        return index().values().stream().mapToInt(List::size).sum();
+    }
+}
@@ -0,0 +1,127 @@
+package com.nisanth.foodapi.service.catalog;
+
+import com.nisanth.foodapi.entity.FlashSaleEntity;
+import com.nisanth.foodapi.entity.FoodEntity;
+import com.nisanth.foodapi.io.food.FoodResponse;
+import com.nisanth.foodapi.service.CategoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Builds {@link FoodResponse}s for a whole list of foods at once.
+ * Flash sales come from {@link FlashSaleIndex} and category names from the
+ * {@link CategoryService} dictionary, so assembly itself runs no queries. Ratings and order counts come from
+ * the counters stored on the food itself.
+ */
+@Component
+@RequiredArgsConstructor
+public class FoodResponseAssembler {
+
+    private final FlashSaleIndex flashSaleIndex;
+    private final CategoryService categoryService;
+
+    public FoodResponse toResponse(FoodEntity food) {
+        return toResponses(List.of(food)).get(0);
+    }
+
+    public List<FoodResponse> toResponses(List<FoodEntity> foods) {
+        if (foods.isEmpty()) return new ArrayList<>();
+
+        List<String> foodIds = foods.stream().map(FoodEntity::getId).toList();
+
+        // FLASH SALES (one active sale per food, from the in-memory index)
+        Map<String, FlashSaleEntity> flashSales =
+                flashSaleIndex.activeSales(foodIds, LocalDateTime.now());
+
+        List<FoodResponse> responses = new ArrayList<>(foods.size());
+        for (FoodEntity food : foods) {
+            responses.add(build(
+                    food,
+                    flashSales.get(food.getId()),
+                    categoryService.namesOf(food.getCategoryIds())
+            ));
+        }
+        return responses;
+    }
+
+    // Mongo stock plus units hot-stock instances have leased into memory (as of their last flush)
+    private static int availableStock(FoodEntity food) {
+        int stock = food.getStock();
+        if (food.getHotLeases() != null) {
+            for (int units : food.getHotLeases().values()) stock += units;
+        }
+        return stock;
+    }
+
+    private FoodResponse build(FoodEntity food,
+                               FlashSaleEntity flashSale,
+                               List<String> categoryNames) {
+
+        FoodResponse res = new FoodResponse();
+
+        // BASIC
+        res.setId(food.getId());
+        res.setName(food.getName());
+        res.setDescription(food.getDescription());
+        res.setImageUrl(food.getImageUrl());
+
+        // PRICING
+        res.setMrp(food.getMrp());
+
+        double finalPrice;
+
+        if (flashSale != null) {
+            finalPrice = flashSale.getSalePrice();
+            res.setFlashSaleActive(true);
+            res.setFlashSalePrice(flashSale.getSalePrice());
+            res.setFlashSaleEndTime(flashSale.getEndTime());
+            res.setOfferLabel("FLASH SALE");
+        } else {
+            finalPrice = food.getSellingPrice();
+            res.setFlashSaleActive(false);
+            res.setFlashSalePrice(null);
+            res.setFlashSaleEndTime(null);
+            res.setOfferLabel(food.getOfferLabel());
+        }
+
+        res.setSellingPrice(finalPrice);
+        res.setPrice(finalPrice);
+
+        // DISCOUNT %
+        int discountPercentage = 0;
+        if (food.getMrp() > 0 && finalPrice < food.getMrp()) {
+            discountPercentage =
+                    (int) (((food.getMrp() - finalPrice) / food.getMrp()) * 100);
+        }
+        res.setDiscountPercentage(discountPercentage);
+
+        // FLAGS
+        res.setSponsored(food.isSponsored());
+        res.setFeatured(food.isFeatured());
+        res.setSoldCount(food.getSoldCount());
+
+        // STOCK
+        int stock = availableStock(food);
+        res.setStock(stock);
+        res.setOutOfStock(food.isOutOfStock());
+        res.setLowStock(stock <= food.getLowStockThreshold());
+
+        // CATEGORIES
+        res.setCategories(categoryNames);
+
+        // REVIEWS
+        res.setAverageRating(food.getRatingCount() > 0
+                ? (double) food.getRatingSum() / food.getRatingCount()
+                : 0);
+        res.setReviewCount(food.getRatingCount());
+
+        // ORDERS
+        res.setOrderCount(food.getOrderCount());
+        res.setBestSeller(food.isBestSeller());
+
+        return res;
+    }
+}
@@ -0,0 +1,366 @@
+package com.nisanth.foodapi.service.catalog;
+
+import com.nisanth.foodapi.entity.FoodEntity;
+import com.nisanth.foodapi.service.CategoryService;
+import com.nisanth.foodapi.repository.FoodRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process full-text index over the catalog (name, description, category names).
+ *
+ * Each query token is matched exactly, by prefix, or (when neither hits) within
+ * a small edit distance; a food must match every token. Results are ranked by
+ * field-weighted text score blended with soldCount, sponsored and featured.
+ * The index is built lazily from Mongo and then kept up to date by FoodServiceImpl.
+ * Writes made on other instances are picked up by a background rebuild once the
+ * index is older than {@code catalog.search.max-age}; searches keep using the
+ * current index until the new one is swapped in.
+ */
+@Component
+@RequiredArgsConstructor
+public class FoodSearchIndex {
+
+    // field weights
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float CATEGORY_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    // match-kind weights
+    private static final float EXACT_MATCH = 1.0f;
+    private static final float PREFIX_MATCH = 0.8f;
+    private static final float FUZZY_MATCH = 0.6f;
+
+    // ranking signals
+    private static final double SOLD_WEIGHT = 0.3;
+    private static final double SPONSORED_BOOST = 0.5;
+    private static final double FEATURED_BOOST = 0.3;
+
+    private final FoodRepository foodRepository;
+    private final CategoryService categoryService;
+
+    @Value("${catalog.search.max-age:PT5M}")
+    private Duration maxAge;
+
+    private record Doc(Set<String> terms, long soldCount, boolean sponsored, boolean featured) {}
+
+    // term -> (foodId -> weighted term score); both replaced as a whole by a rebuild, guarded by lock
+    private NavigableMap<String, Map<String, Float>> postings = new TreeMap<>();
+    private Map<String, Doc> docs = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean built;
+    private volatile long builtAt;
+
+    // background rebuild: foods written while it loads are re-read after the swap
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final Set<String> touchedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private ExecutorService rebuilder;
+
+    @PostConstruct
+    public void start() {
+        rebuilder = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "search-index-rebuild");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (rebuilder != null) rebuilder.shutdownNow();
+    }
+
+    // ------------------- QUERY -------------------
+
+    /**
+     * @return ids of matching foods, best match first
+     */
+    public List<String> search(String query) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) return List.of();
+
+        ensureBuilt();
+        if (System.currentTimeMillis() - builtAt > maxAge.toMillis()) queueRebuild();
+
+        lock.readLock().lock();
+        try {
+            Map<String, Double> scores = null;
+
+            for (String token : tokens) {
+                Map<String, Float> matches = match(token);
+                if (matches.isEmpty()) return List.of();
+
+                if (scores == null) {
+                    scores = new HashMap<>();
+                    for (Map.Entry<String, Float> m : matches.entrySet()) {
+                        scores.put(m.getKey(), (double) m.getValue());
+                    }
+                } else {
+                    // AND semantics: keep only foods that also match this token
+                    Map<String, Double> next = new HashMap<>();
+                    for (Map.Entry<String, Double> s : scores.entrySet()) {
+                        Float score = matches.get(s.getKey());
+                        if (score != null) next.put(s.getKey(), s.getValue() + score);
+                    }
+                    scores = next;
+                }
+                if (scores.isEmpty()) return List.of();
+            }
+
+            Map<String, Double> ranked = new HashMap<>();
+            for (Map.Entry<String, Double> s : scores.entrySet()) {
+                ranked.put(s.getKey(), s.getValue() + popularity(docs.get(s.getKey())));
+            }
+
+            List<String> ids = new ArrayList<>(ranked.keySet());
+            ids.sort(Comparator.comparing((String id) -> ranked.get(id)).reversed()
+                    .thenComparing(id -> id));
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // best score per food for one query token
+    private Map<String, Float> match(String token) {
+        Map<String, Float> best = new HashMap<>();
+
+        collect(best, postings.get(token), EXACT_MATCH);
+
+        if (token.length() >= 2) {
+            for (Map.Entry<String, Map<String, Float>> e :
+                    postings.subMap(token, false, token + Character.MAX_VALUE, false).entrySet()) {
+                collect(best, e.getValue(), PREFIX_MATCH);
+            }
+        }
+
+        int maxEdits = token.length() >= 8 ? 2 : token.length() >= 4 ? 1 : 0;
+        if (best.isEmpty() && maxEdits > 0) {
+            for (Map.Entry<String, Map<String, Float>> e : postings.entrySet()) {
+                String term = e.getKey();
+                if (Math.abs(term.length() - token.length()) > maxEdits) continue;
+                if (editDistance(token, term, maxEdits) <= maxEdits) {
+                    collect(best, e.getValue(), FUZZY_MATCH);
+                }
+            }
+        }
+        return best;
+    }
+
+    private static void collect(Map<String, Float> best, Map<String, Float> posting, float weight) {
+        if (posting == null) return;
+        for (Map.Entry<String, Float> p : posting.entrySet()) {
+            best.merge(p.getKey(), p.getValue() * weight, Math::max);
+        }
+    }
+
+    private static double popularity(Doc doc) {
+        if (doc == null) return 0;
+        return Math.log1p(Math.max(0, doc.soldCount())) * SOLD_WEIGHT
+                + (doc.sponsored() ? SPONSORED_BOOST : 0)
+                + (doc.featured() ? FEATURED_BOOST : 0);
+    }
+
+    // ------------------- UPDATES -------------------
+
+    /** Index (or re-index) a food after create / update. */
+    public void upsert(FoodEntity food) {
+        lock.writeLock().lock();
+        try {
+            if (!built) return; // the first search will load everything
+            if (rebuilding.get()) touchedDuringRebuild.add(food.getId());
+            removeInternal(food.getId());
+            addInternal(food, postings, docs);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String foodId) {
+        lock.writeLock().lock();
+        try {
+            if (rebuilding.get()) touchedDuringRebuild.add(foodId);
+            removeInternal(foodId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Refresh ranking signals only (no re-tokenizing). */
+    public void updateSignals(FoodEntity food) {
+        lock.writeLock().lock();
+        try {
+            Doc doc = docs.get(food.getId());
+            if (doc != null) {
+                docs.put(food.getId(),
+                        new Doc(doc.terms(), food.getSoldCount(), food.isSponsored(), food.isFeatured()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Drop everything; the next search reloads the catalog. */
+    public void invalidate() {
+        built = false;
+    }
+
+    public Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("built", built);
+            stats.put("foods", docs.size());
+            stats.put("terms", postings.size());
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void ensureBuilt() {
+        if (built) return;
+
+        // load under the write lock so an upsert racing the load is applied after it
+        lock.writeLock().lock();
+        try {
+            if (built) return;
+
+            NavigableMap<String, Map<String, Float>> nextPostings = new TreeMap<>();
+            Map<String, Doc> nextDocs = new HashMap<>();
+            for (FoodEntity food : foodRepository.findAll()) addInternal(food, nextPostings, nextDocs);
+            postings = nextPostings;
+            docs = nextDocs;
+            builtAt = System.currentTimeMillis();
+            built = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void queueRebuild() {
+        if (!rebuilding.compareAndSet(false, true)) return;
+        try {
+            rebuilder.execute(() -> {
+                try {
+                    rebuild();
+                } catch (Exception e) {
+                    System.out.println("Search index rebuild failed: " + e.getMessage());
+                } finally {
+                    rebuilding.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rebuilding.set(false);   // shutting down
+        }
+    }
+
+    // load into fresh maps without holding the lock, swap, then redo the foods written meanwhile
+    private void rebuild() {
+        touchedDuringRebuild.clear();
+        NavigableMap<String, Map<String, Float>> nextPostings = new TreeMap<>();
+        Map<String, Doc> nextDocs = new HashMap<>();
+        for (FoodEntity food : foodRepository.findAll()) addInternal(food, nextPostings, nextDocs);
+
+        lock.writeLock().lock();
+        try {
+            postings = nextPostings;
+            docs = nextDocs;
+            builtAt = System.currentTimeMillis();
+            rebuilding.set(false);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        List<String> touched = new ArrayList<>(touchedDuringRebuild);
+        touchedDuringRebuild.clear();
+        if (touched.isEmpty()) return;
+        Set<String> gone = new HashSet<>(touched);
+        for (FoodEntity food : foodRepository.findAllById(touched)) {
+            gone.remove(food.getId());
+            upsert(food);
+        }
+        gone.forEach(this::remove);
+    }
+
+    private void addInternal(FoodEntity food, NavigableMap<String, Map<String, Float>> postings, Map<String, Doc> docs) {
+        Map<String, Float> termScores = new HashMap<>();
+
+        addField(termScores, food.getName(), NAME_WEIGHT);
+        addField(termScores, food.getDescription(), DESCRIPTION_WEIGHT);
+        for (String categoryName : categoryService.namesOf(food.getCategoryIds())) {
+            addField(termScores, categoryName, CATEGORY_WEIGHT);
+        }
+
+        for (Map.Entry<String, Float> t : termScores.entrySet()) {
+            postings.computeIfAbsent(t.getKey(), k -> new HashMap<>()).put(food.getId(), t.getValue());
+        }
+        docs.put(food.getId(), new Doc(
+                termScores.keySet(), food.getSoldCount(), food.isSponsored(), food.isFeatured()));
+    }
+
+    private static void addField(Map<String, Float> termScores, String text, float weight) {
+        List<String> tokens = tokenize(text);
+        for (String token : tokens) {
+            // damped term frequency: repeated words help a little, not linearly
+            termScores.merge(token, weight, (a, b) -> a + b * 0.5f);
+        }
+    }
+
+    private void removeInternal(String foodId) {
+        Doc doc = docs.remove(foodId);
+        if (doc == null) return;
+        for (String term : doc.terms()) {
+            Map<String, Float> posting = postings.get(term);
+            if (posting == null) continue;
+            posting.remove(foodId);
+            if (posting.isEmpty()) postings.remove(term);
+        }
+    }
+
+    // ------------------- TEXT -------------------
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) return List.of();
+        List<String> tokens = new ArrayList<>();
+        for (String raw : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!raw.isEmpty()) tokens.add(raw);
+        }
+        return tokens;
+    }
+
+    // Levenshtein distance, giving up (returning max + 1) once it exceeds max
+    static int editDistance(String a, String b, int max) {
+        int[] prev = new int[b.length() + 1];
+        int[] curr = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) prev[j] = j;
+
+        for (int i = 1; i <= a.length(); i++) {
+            curr[0] = i;
+            int rowMin = curr[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                curr[j] = Math.min(Math.min(curr[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+                rowMin = Math.min(rowMin, curr[j]);
+            }
+            if (rowMin > max) return max + 1;
+            int[] tmp = prev;
+            prev = curr;
+            curr = tmp;
+        }
+        return prev[b.length()];
+    }
+}
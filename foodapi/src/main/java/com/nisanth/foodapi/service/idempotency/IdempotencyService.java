@@ -0,0 +1,235 @@
+package com.nisanth.foodapi.service.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nisanth.foodapi.entity.IdempotencyRecordEntity;
+import com.nisanth.foodapi.enumeration.IdempotencyStatus;
+import com.nisanth.foodapi.service.AuthenticationFacade;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key handling for endpoints that must not run twice.
+ *
+ * The first request with a key claims it (unique insert) and runs; its
+ * successful response is stored and replayed byte-for-byte for any repeat
+ * within {@code idempotency.ttl}. A repeat that arrives while the first is
+ * still running waits for it (up to {@code idempotency.wait}), so concurrent
+ * duplicates are serialized across instances. Failed requests give the key
+ * up again, so a retry after an error really is retried. A claim held past
+ * {@code idempotency.lock} may be taken over; the request it was taken from
+ * can then neither complete nor release it.
+ */
+@Service
+@RequiredArgsConstructor
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long POLL_MILLIS = 100;
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final AuthenticationFacade authenticationFacade;
+
+    // how long a stored response is replayed
+    @Value("${idempotency.ttl:P1D}")
+    private Duration ttl;
+
+    // how long a duplicate waits for the first request before answering 409
+    @Value("${idempotency.wait:PT10S}")
+    private Duration waitFor;
+
+    // a claim older than this belongs to a request that died; another may take over
+    @Value("${idempotency.lock:PT1M}")
+    private Duration lock;
+
+    /**
+     * Run action once per (scope, caller, key); without a key it just runs.
+     */
+    public ResponseEntity<?> execute(String scope, String key, Object request, Supplier<ResponseEntity<?>> action) {
+        if (key == null || key.isBlank()) return action.get();
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, HEADER + " is too long");
+        }
+
+        String id = scope + ":" + principal() + ":" + key;
+        String requestHash = hash(request);
+        String owner = UUID.randomUUID().toString();
+
+        IdempotencyRecordEntity stored = claim(id, requestHash, owner);
+        if (stored != null) return replay(stored);
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            release(id, owner);
+            throw e;
+        }
+
+        if (response.getStatusCode().is2xxSuccessful()) {
+            complete(id, owner, response);
+        } else {
+            release(id, owner);
+        }
+        return response;
+    }
+
+    // ------------------- CLAIM -------------------
+
+    // null when this request now owns the key; the finished record when it is a repeat
+    private IdempotencyRecordEntity claim(String id, String requestHash, String owner) {
+        long deadline = System.currentTimeMillis() + waitFor.toMillis();
+        while (true) {
+            Date now = new Date();
+            try {
+                mongoTemplate.insert(IdempotencyRecordEntity.builder()
+                        .id(id)
+                        .requestHash(requestHash)
+                        .status(IdempotencyStatus.IN_PROGRESS)
+                        .owner(owner)
+                        .lockedUntil(new Date(now.getTime() + lock.toMillis()))
+                        .createdAt(now)
+                        .expiresAt(new Date(now.getTime() + ttl.toMillis()))
+                        .build());
+                return null;
+            } catch (DuplicateKeyException taken) {
+                // fall through: someone has (or had) this key
+            }
+
+            IdempotencyRecordEntity existing = mongoTemplate.findById(id, IdempotencyRecordEntity.class);
+            if (existing == null) continue;   // released or expired meanwhile: try to claim again
+
+            if (!requestHash.equals(existing.getRequestHash())) {
+                throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                        HEADER + " was already used for a different request");
+            }
+            if (existing.getStatus() == IdempotencyStatus.COMPLETED) return existing;
+
+            if (existing.getLockedUntil() != null && existing.getLockedUntil().before(now) && takeOver(id, existing, owner, now)) {
+                return null;
+            }
+
+            if (System.currentTimeMillis() >= deadline) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "A request with this " + HEADER + " is still being processed");
+            }
+            try {
+                Thread.sleep(POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Request interrupted");
+            }
+        }
+    }
+
+    private boolean takeOver(String id, IdempotencyRecordEntity stale, String owner, Date now) {
+        IdempotencyRecordEntity claimed = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(id)
+                        .and("status").is(IdempotencyStatus.IN_PROGRESS)
+                        .and("lockedUntil").is(stale.getLockedUntil())),
+                new Update().set("owner", owner).set("lockedUntil", new Date(now.getTime() + lock.toMillis())),
+                FindAndModifyOptions.options().returnNew(true),
+                IdempotencyRecordEntity.class);
+        return claimed != null;
+    }
+
+    private void complete(String id, String owner, ResponseEntity<?> response) {
+        Object body = response.getBody();
+        byte[] bytes;
+        String contentType;
+        if (body == null) {
+            bytes = new byte[0];
+            contentType = null;
+        } else if (body instanceof String text) {
+            bytes = text.getBytes(StandardCharsets.UTF_8);
+            contentType = MediaType.TEXT_PLAIN_VALUE + ";charset=UTF-8";
+        } else {
+            try {
+                bytes = objectMapper.writeValueAsBytes(body);
+            } catch (JsonProcessingException e) {
+                release(id, owner);
+                return;
+            }
+            contentType = MediaType.APPLICATION_JSON_VALUE;
+        }
+
+        // only while this request still holds the claim; after a takeover the
+        // other request's response is the one that gets replayed
+        long stored = mongoTemplate.updateFirst(
+                owned(id, owner),
+                new Update()
+                        .set("status", IdempotencyStatus.COMPLETED)
+                        .unset("lockedUntil")
+                        .unset("owner")
+                        .set("responseStatus", response.getStatusCode().value())
+                        .set("contentType", contentType)
+                        .set("responseBody", bytes),
+                IdempotencyRecordEntity.class
+        ).getModifiedCount();
+        if (stored == 0) {
+            System.out.println("Idempotency claim on " + id + " was taken over; response not stored");
+        }
+    }
+
+    private void release(String id, String owner) {
+        mongoTemplate.remove(owned(id, owner), IdempotencyRecordEntity.class);
+    }
+
+    private static Query owned(String id, String owner) {
+        return Query.query(Criteria.where("_id").is(id)
+                .and("status").is(IdempotencyStatus.IN_PROGRESS)
+                .and("owner").is(owner));
+    }
+
+    private static ResponseEntity<?> replay(IdempotencyRecordEntity stored) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(stored.getResponseStatus())
+                .header(REPLAYED_HEADER, "true");
+        if (stored.getContentType() != null) {
+            response.contentType(MediaType.parseMediaType(stored.getContentType()));
+        }
+        return response.body(stored.getResponseBody());
+    }
+
+    // ------------------- HELPERS -------------------
+
+    private String principal() {
+        Authentication auth = authenticationFacade.getAuthentication();
+        return auth != null && auth.getName() != null ? auth.getName() : "anonymous";
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unreadable request body");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // SHA-256 is always available
+        }
+    }
+}
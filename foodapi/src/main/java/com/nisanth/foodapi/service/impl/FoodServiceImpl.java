@@ -4,16 +4,32 @@ import com.nisanth.foodapi.entity.*;
 import com.nisanth.foodapi.io.food.FoodRequest;
 import com.nisanth.foodapi.io.food.FoodResponse;
 import com.nisanth.foodapi.repository.*;
-import com.nisanth.foodapi.repository.offers.FlashSaleRepository;
+import com.nisanth.foodapi.service.CategoryService;
 import com.nisanth.foodapi.service.FoodService;
 import com.nisanth.foodapi.service.PricingService;
 import com.nisanth.foodapi.service.SettingService;
+import com.nisanth.foodapi.service.catalog.CatalogCache;
+import com.nisanth.foodapi.service.catalog.FoodResponseAssembler;
+import com.nisanth.foodapi.service.catalog.FoodSearchIndex;
+import com.nisanth.foodapi.service.inventory.HotStockCounters;
+import com.nisanth.foodapi.service.inventory.StockLogWriter;
+import com.nisanth.foodapi.service.inventory.StockReservationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -25,9 +41,7 @@ import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.model.PutObjectResponse;
 
 import java.io.IOException;
-import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class FoodServiceImpl implements FoodService {
@@ -36,31 +50,41 @@ public class FoodServiceImpl implements FoodService {
     private S3Client s3Client;
 
     @Autowired
-    private StockLogRepository stockLogRepository;
+    private FoodRepository foodRepository;
 
     @Autowired
-    private FoodRepository foodRepository;
+    private CategoryService categoryService;
 
     @Autowired
-    private ReviewRepository reviewRepository;
+    private MongoTemplate mongoTemplate;
 
     @Autowired
-    private CategoryRepository categoryRepository;
+    private SettingService settingService;
 
     @Autowired
-    private OrderRepository orderRepository;
+    private FoodResponseAssembler foodResponseAssembler;
 
     @Autowired
-    private MongoTemplate mongoTemplate;
+    private CatalogCache catalogCache;
 
     @Autowired
-    private SettingService settingService;
+    private FoodSearchIndex foodSearchIndex;
 
     @Autowired
-    private PricingService pricingService;
+    private StockReservationService stockReservationService;
 
     @Autowired
-    private FlashSaleRepository flashSaleRepository;
+    private HotStockCounters hotStockCounters;
+
+    @Autowired
+    private StockLogWriter stockLogWriter;
+
+    // serve storefront reads from the in-memory catalog snapshot
+    @Value("${catalog.snapshot.enabled:true}")
+    private boolean snapshotEnabled;
+
+    @Autowired
+    private PricingService pricingService;
 
     @Override
     public String uploadFile(MultipartFile file) {
@@ -108,49 +132,68 @@ public class FoodServiceImpl implements FoodService {
             newFoodEntity.setOutOfStock(false);
         }
         newFoodEntity = foodRepository.save(newFoodEntity);
+        catalogCache.invalidateFood(newFoodEntity.getId());
+        foodSearchIndex.upsert(newFoodEntity);
+        categoryService.invalidateFoodCounts();
         return convertToResponse(newFoodEntity);
     }
 
     @Override
     public FoodResponse updateFood(String id, FoodRequest req, MultipartFile file) {
-        FoodEntity food = foodRepository.findById(id)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.NOT_FOUND, "Food not found"));
-
-        food.setName(req.getName());
-        food.setDescription(req.getDescription());
-
-        // 🔥 PRICING
-        food.setMrp(req.getMrp());
-        food.setSellingPrice(req.getSellingPrice());
-        food.setOfferActive(req.isOfferActive());
-        food.setOfferLabel(req.getOfferLabel());
-
-        food.setCategoryIds(req.getCategoryIds());
-        food.setSponsored(req.isSponsored());
-        food.setFeatured(req.isFeatured());
-        food.setStock(req.getStock());
-        food.setLowStockThreshold(
-                req.getLowStockThreshold() > 0 ? req.getLowStockThreshold() : 5);
-        food.setOutOfStock(food.getStock() <= 0);
+        // only the fields the form edits; ratings, counters and hot-stock leases
+        // are kept current by $inc elsewhere and must not be written back
+        Update update = new Update()
+                .set("name", req.getName())
+                .set("description", req.getDescription())
+                // 🔥 PRICING
+                .set("mrp", req.getMrp())
+                .set("sellingPrice", req.getSellingPrice())
+                .set("offerActive", req.isOfferActive())
+                .set("offerLabel", req.getOfferLabel())
+                .set("categoryIds", req.getCategoryIds())
+                .set("sponsored", req.isSponsored())
+                .set("featured", req.isFeatured())
+                .set("stock", req.getStock())
+                .set("lowStockThreshold", req.getLowStockThreshold() > 0 ? req.getLowStockThreshold() : 5)
+                .set("outOfStock", req.getStock() <= 0);
+        HotStockCounters.revokeLeases(update);   // the request carries an absolute stock level
 
         if (file != null && !file.isEmpty()) {
-            food.setImageUrl(uploadFile(file));
+            update.set("imageUrl", uploadFile(file));
+        }
+
+        Query query = Query.query(Criteria.where("_id").is(id));
+        query.fields().include("categoryIds");
+        FoodEntity before = mongoTemplate.findAndModify(query, update, FoodEntity.class);
+        if (before == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Food not found");
         }
+        boolean categoriesChanged = !Objects.equals(before.getCategoryIds(), req.getCategoryIds());
+        hotStockCounters.revoked(id);
 
-        return convertToResponse(foodRepository.save(food));
+        FoodEntity food = foodRepository.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(
+                        HttpStatus.NOT_FOUND, "Food not found"));
+        catalogCache.invalidateFood(id);
+        foodSearchIndex.upsert(food);
+        if (categoriesChanged) categoryService.invalidateFoodCounts();
+        return convertToResponse(food);
     }
 
     @Override
     public List<FoodResponse> readFoods() {
-        return foodRepository.findAllByOrderBySponsoredDescFeaturedDesc()
-                .stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        if (snapshotEnabled) {
+            return catalogCache.current().all();
+        }
+        return convertToResponses(foodRepository.findAllByOrderBySponsoredDescFeaturedDesc());
     }
 
     @Override
     public FoodResponse readFood(String id) {
+        if (snapshotEnabled) {
+            Optional<FoodResponse> cached = catalogCache.current().find(id);
+            if (cached.isPresent()) return cached.get();
+        }
         FoodEntity food = foodRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Food not found with id: " + id));
         return convertToResponse(food);
@@ -158,32 +201,43 @@ public class FoodServiceImpl implements FoodService {
 
     @Override
     public void adjustStock(String foodId, int delta) {
-        FoodEntity food = foodRepository.findById(foodId)
-                .orElseThrow(() -> new RuntimeException("Food not found"));
+        // one pipeline update, so it composes with reservations' guarded $inc:
+        // stock = max(0, stock + delta), then outOfStock from the new stock.
+        // Units leased to hot-stock pools are not touched; they come back on their own.
+        Query query = Query.query(Criteria.where("_id").is(foodId));
+        query.fields().include("name").include("stock");
+        FoodEntity food = mongoTemplate.findAndModify(
+                query,
+                AggregationUpdate.update()
+                        .set("stock").toValue(ConditionalOperators
+                                .when(ComparisonOperators.valueOf("stock").greaterThanEqualToValue(-delta))
+                                .thenValueOf(ArithmeticOperators.valueOf("stock").add(delta))
+                                .otherwise(0))
+                        .set("outOfStock").toValue(ComparisonOperators.valueOf("stock").lessThanEqualToValue(0)),
+                FoodEntity.class);
+        if (food == null) throw new RuntimeException("Food not found");
+        catalogCache.invalidateFood(foodId);
 
         int oldStock = food.getStock();
         int newStock = Math.max(0, oldStock + delta);
-
-        food.setStock(newStock);
-        food.setOutOfStock(newStock <= 0);
-        foodRepository.save(food);
-
         logStockChange(foodId, food.getName(), oldStock, newStock, "system", "auto_adjust");
     }
 
 
     @Override
     public void setStock(String foodId, int newStock) {
-        FoodEntity food = foodRepository.findById(foodId)
-                .orElseThrow(() -> new RuntimeException("Food not found"));
-
-        int oldStock = food.getStock();
-
-        food.setStock(newStock);
-        food.setOutOfStock(newStock <= 0);
-        foodRepository.save(food);
-
-        logStockChange(foodId, food.getName(), oldStock, newStock, "admin", "manual_update");
+        // returns the food as it was, for the log line
+        Query query = Query.query(Criteria.where("_id").is(foodId));
+        query.fields().include("name").include("stock");
+        FoodEntity food = mongoTemplate.findAndModify(
+                query,
+                HotStockCounters.revokeLeases(new Update().set("stock", newStock).set("outOfStock", newStock <= 0)),
+                FoodEntity.class);
+        if (food == null) throw new RuntimeException("Food not found");
+        hotStockCounters.revoked(foodId);
+        catalogCache.invalidateFood(foodId);
+
+        logStockChange(foodId, food.getName(), food.getStock(), newStock, "admin", "manual_update");
     }
 
 
@@ -191,50 +245,86 @@ public class FoodServiceImpl implements FoodService {
     public Page<FoodResponse> getFoodsPaginated(
             int page, int size, String category, String search, String sort) {
 
+        // ranked ids from the search index; null when not searching
+        List<String> searchHits = search != null && !search.isBlank()
+                ? foodSearchIndex.search(search)
+                : null;
+
+        if (snapshotEnabled) {
+            return catalogCache.current().page(page, size, category, searchHits, sort);
+        }
+
         Pageable pageable = PageRequest.of(page, size);
-        List<FoodEntity> foods = foodRepository.findAll();
+        Query query = new Query();
 
         if (category != null && !"All".equalsIgnoreCase(category)) {
 
-            Optional<Category> categoryEntity =
-                    categoryRepository.findByNameIgnoreCase(category);
-
-            if (categoryEntity.isPresent()) {
-                String categoryId = categoryEntity.get().getId();
+            Optional<String> categoryId = categoryService.idOf(category);
 
-                foods = foods.stream()
-                        .filter(f -> f.getCategoryIds() != null &&
-                                f.getCategoryIds().contains(categoryId))
-                        .toList();
-            } else {
-                foods = Collections.emptyList();
+            if (categoryId.isEmpty()) {
+                return Page.empty(pageable);
             }
+            query.addCriteria(Criteria.where("categoryIds").is(categoryId.get()));
         }
 
+        if (searchHits != null) {
+            if (searchHits.isEmpty()) {
+                return Page.empty(pageable);
+            }
+            query.addCriteria(Criteria.where("_id").in(searchHits));
 
-        if (search != null && !search.isBlank()) {
-            foods = foods.stream()
-                    .filter(f -> f.getName()
-                            .toLowerCase().contains(search.toLowerCase()))
-                    .toList();
+            if (!isPriceSort(sort)) {
+                return relevancePage(query, searchHits, pageable);
+            }
         }
 
-        if ("priceLowHigh".equals(sort)) {
-            foods.sort(Comparator.comparingDouble(FoodEntity::getSellingPrice));
-        } else if ("priceHighLow".equals(sort)) {
-            foods.sort(Comparator.comparingDouble(
-                    FoodEntity::getSellingPrice).reversed());
+        long total = mongoTemplate.count(query, FoodEntity.class);
+
+        query.with(catalogSort(sort)).with(pageable);
+        List<FoodResponse> content = convertToResponses(mongoTemplate.find(query, FoodEntity.class));
+
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    // Mongo applies the filters, the page is cut in search-rank order
+    private Page<FoodResponse> relevancePage(Query query, List<String> searchHits, Pageable pageable) {
+        query.fields().include("_id");
+        Set<String> matching = new HashSet<>();
+        for (FoodEntity f : mongoTemplate.find(query, FoodEntity.class)) {
+            matching.add(f.getId());
         }
 
-        int start = (int) pageable.getOffset();
-        int end = Math.min(start + size, foods.size());
+        List<String> ranked = searchHits.stream().filter(matching::contains).toList();
+        int start = (int) Math.min(pageable.getOffset(), ranked.size());
+        int end = Math.min(start + pageable.getPageSize(), ranked.size());
+        List<String> pageIds = ranked.subList(start, end);
 
-        List<FoodResponse> content = foods.subList(start, end)
-                .stream()
-                .map(this::convertToResponse)
+        Map<String, FoodEntity> foods = new HashMap<>();
+        for (FoodEntity f : foodRepository.findAllById(pageIds)) {
+            foods.put(f.getId(), f);
+        }
+        List<FoodEntity> content = pageIds.stream()
+                .map(foods::get)
+                .filter(Objects::nonNull)
                 .toList();
 
-        return new PageImpl<>(content, pageable, foods.size());
+        return new PageImpl<>(convertToResponses(content), pageable, ranked.size());
+    }
+
+    private boolean isPriceSort(String sort) {
+        return "priceLowHigh".equals(sort) || "priceHighLow".equals(sort);
+    }
+
+    // price sorts use the sellingPrice index; default keeps sponsored/featured first.
+    // _id is always the last key so skip/limit paging is stable.
+    private Sort catalogSort(String sort) {
+        if ("priceLowHigh".equals(sort)) {
+            return Sort.by(Sort.Order.asc("sellingPrice"), Sort.Order.asc("_id"));
+        }
+        if ("priceHighLow".equals(sort)) {
+            return Sort.by(Sort.Order.desc("sellingPrice"), Sort.Order.asc("_id"));
+        }
+        return Sort.by(Sort.Order.desc("sponsored"), Sort.Order.desc("featured"), Sort.Order.asc("_id"));
     }
 
 
@@ -259,6 +349,9 @@ public class FoodServiceImpl implements FoodService {
 
         if (isFileDeleted) {
             foodRepository.deleteById(response.getId());
+            catalogCache.invalidateFood(response.getId());
+            foodSearchIndex.remove(response.getId());
+            categoryService.invalidateFoodCounts();
         }
     }
     private FoodEntity convertToEntity(FoodRequest req) {
@@ -281,104 +374,28 @@ public class FoodServiceImpl implements FoodService {
                                 : 5)
                 .outOfStock(stock == 0)
                 .soldCount(0L)
+                .orderCount(0L)
                 .bestSeller(false)
+                .ratingSum(0L)
+                .ratingCount(0)
+                .ratingHistogram(new HashMap<>())
                 .build();
     }
+    @Override
     public FoodResponse convertToResponse(FoodEntity food) {
+        return foodResponseAssembler.toResponse(food);
+    }
 
-        FoodResponse res = new FoodResponse();
-
-        // BASIC
-        res.setId(food.getId());
-        res.setName(food.getName());
-        res.setDescription(food.getDescription());
-        res.setImageUrl(food.getImageUrl());
-
-        // PRICING
-        res.setMrp(food.getMrp());
-
-        Optional<FlashSaleEntity> flashSaleOpt =
-                flashSaleRepository.findByFoodIdAndActiveTrueAndStartTimeBeforeAndEndTimeAfter(
-                        food.getId(),
-                        LocalDateTime.now(),
-                        LocalDateTime.now()
-                );
-
-        double finalPrice;
-
-        if (flashSaleOpt.isPresent()) {
-            FlashSaleEntity fs = flashSaleOpt.get();
-
-            finalPrice = fs.getSalePrice();
-            res.setFlashSaleActive(true);
-            res.setFlashSalePrice(fs.getSalePrice());
-            res.setFlashSaleEndTime(fs.getEndTime());
-            res.setOfferLabel("FLASH SALE");
-
-        } else {
-            finalPrice = pricingService.getEffectivePrice(food);
-            res.setFlashSaleActive(false);
-            res.setFlashSalePrice(null);
-            res.setFlashSaleEndTime(null);
-            res.setOfferLabel(food.getOfferLabel());
-        }
-
-        res.setSellingPrice(finalPrice);
-        res.setPrice(finalPrice);
-
-        // DISCOUNT %
-        int discountPercentage = 0;
-        if (food.getMrp() > 0 && finalPrice < food.getMrp()) {
-            discountPercentage =
-                    (int) (((food.getMrp() - finalPrice) / food.getMrp()) * 100);
-        }
-        res.setDiscountPercentage(discountPercentage);
-
-        // FLAGS
-        res.setSponsored(food.isSponsored());
-        res.setFeatured(food.isFeatured());
-        res.setSoldCount(food.getSoldCount());
-
-
-        // STOCK
-        res.setStock(food.getStock());
-        res.setOutOfStock(food.isOutOfStock());
-        res.setLowStock(food.getStock() <= food.getLowStockThreshold());
-
-        // CATEGORIES
-        List<String> categoryNames = Collections.emptyList();
-        if (food.getCategoryIds() != null && !food.getCategoryIds().isEmpty()) {
-            categoryNames = categoryRepository.findAllById(food.getCategoryIds())
-                    .stream()
-                    .map(Category::getName)
-                    .collect(Collectors.toList());
-        }
-        res.setCategories(categoryNames);
-
-        // REVIEWS
-        List<ReviewEntity> reviews = reviewRepository.findByFoodId(food.getId());
-        if (!reviews.isEmpty()) {
-            double avg = reviews.stream().mapToInt(ReviewEntity::getRating).average().orElse(0);
-            res.setAverageRating(avg);
-            res.setReviewCount(reviews.size());
-        } else {
-            res.setAverageRating(0);
-            res.setReviewCount(0);
-        }
-
-        // ORDERS
-        res.setOrderCount(orderRepository.countByOrderedItemsFoodId(food.getId()));
-        res.setBestSeller(food.isBestSeller());
-
-
-        return res;
+    @Override
+    public List<FoodResponse> convertToResponses(List<FoodEntity> foods) {
+        return foodResponseAssembler.toResponses(foods);
     }
 
 
 
     @Override
     public List<Category> getCategories() {
-        return categoryRepository.findAll();
+        return categoryService.getCategories();
     }
 
     /**
@@ -388,45 +405,25 @@ public class FoodServiceImpl implements FoodService {
     @Override
     public boolean tryReserveStock(String foodId, int qty) {
         if (qty <= 0) return false;
+        return stockReservationService
+                .reserve(Map.of(foodId, qty), "user", "order_reservation")
+                .isEmpty();
+    }
 
-        FoodEntity food = foodRepository.findById(foodId)
-                .orElseThrow(() -> new RuntimeException("Food not found"));
-
-        int oldStock = food.getStock();
-
-        if (oldStock < qty) return false;
-
-        int newStock = oldStock - qty;
-
-        food.setStock(newStock);
-        food.setOutOfStock(newStock <= 0);
-        foodRepository.save(food);
-
-        logStockChange(foodId, food.getName(), oldStock, newStock, "user", "order_reservation");
 
-        return true;
+    @Override
+    public void setHotStock(String foodId, boolean enabled) {
+        hotStockCounters.pin(foodId, enabled);
+        catalogCache.invalidateFood(foodId);
     }
 
-
     /**
      * Release previously reserved stock (increment by qty).
-     * If food not found, throws 404.
      */
     @Override
     public void releaseReservedStock(String foodId, int qty) {
         if (qty <= 0) return;
-
-        FoodEntity food = foodRepository.findById(foodId)
-                .orElseThrow(() -> new RuntimeException("Food not found"));
-
-        int oldStock = food.getStock();
-        int newStock = oldStock + qty;
-
-        food.setStock(newStock);
-        food.setOutOfStock(false);
-        foodRepository.save(food);
-
-        logStockChange(foodId, food.getName(), oldStock, newStock, "system", "cancel_order_restore");
+        stockReservationService.release(Map.of(foodId, qty), "system", "cancel_order_restore");
     }
 
 
@@ -444,60 +441,84 @@ public class FoodServiceImpl implements FoodService {
                 .timestamp(new Date())
                 .build();
 
-        stockLogRepository.save(log);
+        stockLogWriter.append(log);
     }
 
 
     @Override
     public double getEffectivePrice(FoodEntity food) {
-
-        return flashSaleRepository
-                .findByFoodIdAndActiveTrueAndStartTimeBeforeAndEndTimeAfter(
-                        food.getId(),
-                        LocalDateTime.now(),
-                        LocalDateTime.now()
-                )
-                .map(FlashSaleEntity::getSalePrice)
-                .orElse(food.getSellingPrice());
+        return pricingService.getEffectivePrice(food);
     }
 
     @Override
     public List<FoodResponse> getBestSellers() {
-        return foodRepository.findTop8ByBestSellerTrueOrderBySoldCountDesc()
-                .stream()
-                .map(this::convertToResponse)
-                .toList();
+        if (snapshotEnabled) {
+            return catalogCache.current().bestSellers();
+        }
+        return convertToResponses(foodRepository.findTop8ByBestSellerTrueOrderBySoldCountDesc());
     }
 
     @Override
     public List<FoodResponse> getTopSellingFoods() {
-        return foodRepository.findTop8ByOrderBySoldCountDesc()
-                .stream()
-                .map(this::convertToResponse)
-                .toList();
+        if (snapshotEnabled) {
+            return catalogCache.current().topSelling();
+        }
+        return convertToResponses(foodRepository.findTop8ByOrderBySoldCountDesc());
     }
 
     @Override
     public List<FoodResponse> getFeaturedFoods() {
-        return foodRepository.findTop8ByFeaturedTrue()
-                .stream()
-                .map(this::convertToResponse)
-                .toList();
+        if (snapshotEnabled) {
+            return catalogCache.current().featured();
+        }
+        return convertToResponses(foodRepository.findTop8ByFeaturedTrue());
     }
 
     @Override
     public void increaseSoldCount(String foodId, int qty) {
+        increaseSoldCounts(Map.of(foodId, qty));
+    }
 
-        FoodEntity food = foodRepository.findById(foodId)
-                .orElseThrow(() -> new RuntimeException("Food not found"));
-
-        long updatedSoldCount = food.getSoldCount() + qty;
-        food.setSoldCount(updatedSoldCount);
-
-        // ⭐ AUTO BEST SELLER LOGIC
-        food.setBestSeller(updatedSoldCount >= 50);
+    // ⭐ bestSeller flags are recomputed from soldCount by BestSellerRankingJob
+    @Override
+    public void increaseSoldCounts(Map<String, Integer> quantities) {
+        Map<String, Integer> sold = new LinkedHashMap<>();
+        quantities.forEach((foodId, qty) -> {
+            if (foodId != null && qty != null && qty > 0) sold.merge(foodId, qty, Integer::sum);
+        });
+        if (sold.isEmpty()) return;
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, FoodEntity.class);
+        sold.forEach((foodId, qty) -> bulk.updateOne(
+                Query.query(Criteria.where("_id").is(foodId)),
+                new Update().inc("soldCount", qty)));
+        bulk.execute();
+
+        // the counters are written: from here on nothing may fail the caller,
+        // which would retry and count the sale twice
+        try {
+            // refresh the search ranking signals from the new counters
+            Query updated = Query.query(Criteria.where("_id").in(sold.keySet()));
+            updated.fields().include("soldCount").include("sponsored").include("featured");
+            for (FoodEntity food : mongoTemplate.find(updated, FoodEntity.class)) {
+                foodSearchIndex.updateSignals(food);
+            }
+        } catch (RuntimeException e) {
+            System.out.println("Search signals not refreshed for " + sold.keySet() + ": " + e.getMessage());
+        }
+        catalogCache.invalidateFoods(sold.keySet());
+    }
 
-        foodRepository.save(food);
+    @Override
+    public void adjustOrderCounts(Collection<String> foodIds, int delta) {
+        if (foodIds.isEmpty() || delta == 0) return;
+
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("_id").in(foodIds)),
+                new Update().inc("orderCount", delta),
+                FoodEntity.class
+        );
+        catalogCache.invalidateFoods(foodIds);
     }
 
 
@@ -2,27 +2,43 @@ package com.nisanth.foodapi.service.impl;
 
 import com.nisanth.foodapi.entity.*;
 import com.nisanth.foodapi.enumeration.OrderStatus;
+import com.nisanth.foodapi.exception.InsufficientStockException;
 import com.nisanth.foodapi.io.*;
+import com.nisanth.foodapi.io.food.StockShortage;
+import com.nisanth.foodapi.io.order.DeliveryTask;
+import com.nisanth.foodapi.io.order.OrderFilter;
 import com.nisanth.foodapi.io.order.OrderItem;
+import com.nisanth.foodapi.io.order.OrderPage;
 import com.nisanth.foodapi.io.order.OrderRequest;
 import com.nisanth.foodapi.io.order.OrderResponse;
-import com.nisanth.foodapi.io.util.DeliveryMessage;
+import com.nisanth.foodapi.io.order.OrderSummary;
 import com.nisanth.foodapi.repository.*;
 import com.nisanth.foodapi.repository.offers.ComboRepository;
 import com.nisanth.foodapi.repository.offers.CouponRepository;
 import com.nisanth.foodapi.service.*;
-import com.razorpay.Order;
-import com.razorpay.RazorpayClient;
-import com.razorpay.RazorpayException;
-import org.json.JSONObject;
+import com.nisanth.foodapi.service.inventory.StockHoldService;
+import com.nisanth.foodapi.service.inventory.StockReservationService;
+import com.nisanth.foodapi.service.order.OrderMutationService;
+import com.nisanth.foodapi.service.outbox.OutboxService;
+import com.nisanth.foodapi.service.payment.PaymentGateway;
+import com.nisanth.foodapi.service.timeline.OrderTimelineService;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
-import org.thymeleaf.context.Context;
-import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -44,21 +60,12 @@ public class OrderServiceImpl implements OrderService {
     @Autowired
     private DeliveryBoyRepository deliveryBoyRepository;
 
-    @Autowired
-    private EmailService emailService;
-
     @Autowired
     private CouponRepository couponRepository;
 
-    @Autowired
-    private CartRepository cartRepository;
-
     @Autowired
     private UserService userService;
 
-    @Autowired
-    private SpringTemplateEngine templateEngine;
-
     @Autowired
     private FoodRepository foodRepository;
 
@@ -74,97 +81,99 @@ public class OrderServiceImpl implements OrderService {
     @Autowired
     private ShipTrackingService shipTrackingService;
 
+    @Autowired
+    private StockReservationService stockReservationService;
 
-    // ------------------- CREATE ORDER -------------------
-    @Override
-    public OrderResponse createOrderWithPayment(OrderRequest request) throws RazorpayException {
-        if (request.getOrderedItems() == null || request.getOrderedItems().isEmpty()) {
-            throw new RuntimeException("No ordered items provided");
-        }
-
-        Setting s = settingService.getSettings();
-        String RAZORPAY_KEY = s.getRazorpayKey();
+    @Autowired
+    private StockHoldService stockHoldService;
 
-        Setting s1 = settingService.getSettings();
-        String RAZORPAY_SECRET = s1.getRazorpaySecret();
+    @Autowired
+    private PaymentGateway paymentGateway;
 
-        List<OrderItem> reservedList = new ArrayList<>();
-        try {
-            for (OrderItem item : request.getOrderedItems()) {
+    @Autowired
+    private MongoTemplate mongoTemplate;
 
-                if (item.getQuantity() == null || item.getQuantity() <= 0) {
-                    throw new RuntimeException("Invalid quantity");
-                }
+    @Autowired
+    private OutboxService outboxService;
 
-                if ("FOOD".equalsIgnoreCase(item.getType())) {
+    @Autowired
+    private OrderTimelineService orderTimelineService;
 
-                    if (item.getFoodId() == null) {
-                        throw new RuntimeException("Food ID missing");
-                    }
+    @Autowired
+    private OrderMutationService orderMutationService;
 
-                    boolean reserved = foodService.tryReserveStock(
-                            item.getFoodId(),
-                            item.getQuantity()
-                    );
 
-                    if (!reserved) {
-                        throw new RuntimeException("Insufficient stock for food");
-                    }
+    // ------------------- CREATE ORDER -------------------
+    @Override
+    public OrderResponse createOrderWithPayment(OrderRequest request) {
+        if (request.getOrderedItems() == null || request.getOrderedItems().isEmpty()) {
+            throw new RuntimeException("No ordered items provided");
+        }
 
-                    reservedList.add(item);
-                }
+        Setting settings = settingService.getSettings();
 
-                else if ("COMBO".equalsIgnoreCase(item.getType())) {
+        for (OrderItem item : request.getOrderedItems()) {
 
-                    if (item.getComboId() == null) {
-                        throw new RuntimeException("Combo ID missing");
-                    }
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new RuntimeException("Invalid quantity");
+            }
 
-                    // 🔒 No stock reservation for combo (or handle later if needed)
-                    reservedList.add(item);
+            if ("FOOD".equalsIgnoreCase(item.getType())) {
+                if (item.getFoodId() == null) {
+                    throw new RuntimeException("Food ID missing");
                 }
+            }
 
-                else {
-                    throw new RuntimeException("Invalid item type");
+            else if ("COMBO".equalsIgnoreCase(item.getType())) {
+                if (item.getComboId() == null) {
+                    throw new RuntimeException("Combo ID missing");
                 }
+                // 🔒 No stock reservation for combo (or handle later if needed)
             }
 
+            else {
+                throw new RuntimeException("Invalid item type");
+            }
+        }
 
-            OrderEntity newOrder = convertToEntity(request);
-            newOrder.setOrderStatus(OrderStatus.ORDER_PLACED);
-            newOrder.getStatusTimestamps().put(String.valueOf(OrderStatus.ORDER_PLACED), LocalDateTime.now());
-
-            newOrder = orderRepository.save(newOrder);
+        // one query each for foods, combos and the coupon, before any stock is touched
+        OrderEntity newOrder = convertToEntity(request, settings);
+        newOrder.setId(new ObjectId().toHexString());   // known up front, so the order is written once
+        newOrder.setCreatedDate(Instant.now());         // auditing skips entities that already have an id
+        newOrder.setOrderStatus(OrderStatus.ORDER_PLACED);
+        newOrder.getStatusTimestamps().put(String.valueOf(OrderStatus.ORDER_PLACED), LocalDateTime.now());
+        newOrder.setUserId(userService.findByUserId());
+
+        // 🔒 reserve every food line in one go, or none of them
+        Map<String, Integer> foodLines = foodQuantities(request.getOrderedItems());
+        List<StockShortage> shortages =
+                stockReservationService.reserve(foodLines, "user", "order_reservation");
+        if (!shortages.isEmpty()) {
+            throw new InsufficientStockException(shortages);
+        }
 
-            RazorpayClient razorpayClient = new RazorpayClient(RAZORPAY_KEY, RAZORPAY_SECRET);
-            JSONObject orderRequest = new JSONObject();
-            int amountPaise = (int) Math.round(newOrder.getAmount() * 100);
-            orderRequest.put("amount", amountPaise);
+        String heldOrderId = null;
+        try {
 
-            orderRequest.put("currency", "INR");
-            orderRequest.put("payment_capture", 1);
+            long amountPaise = Math.round(newOrder.getAmount() * 100);
+            newOrder.setRazorpayOrderId(paymentGateway.createOrder(settings, amountPaise, "INR"));
 
-            Order razorpayOrder = razorpayClient.orders.create(orderRequest);
-            newOrder.setRazorpayOrderId(razorpayOrder.get("id"));
+            // ⏳ unpaid orders give their stock back after stock.hold.ttl
+            if (!foodLines.isEmpty()) {
+                stockHoldService.hold(newOrder.getId(), foodLines);
+                heldOrderId = newOrder.getId();
+            }
 
-            String loggedInUserId = userService.findByUserId();
-            newOrder.setUserId(loggedInUserId);
-            orderRepository.save(newOrder);
+            newOrder = orderRepository.save(newOrder);
 
-            return convertToResponse(newOrder);
+            return convertToResponse(newOrder, settings);
 
         } catch (RuntimeException ex) {
-            for (OrderItem r : reservedList) {
-
-                if ("FOOD".equalsIgnoreCase(r.getType())) {
-                    try {
-                        foodService.releaseReservedStock(
-                                r.getFoodId(),
-                                r.getQuantity()
-                        );
-                    } catch (Exception ignore) {}
+            try {
+                if (heldOrderId == null || !stockHoldService.release(heldOrderId)) {
+                    stockReservationService.release(foodLines, "system", "cancel_order_restore");
                 }
-            }
+            } catch (Exception ignore) {}
 
             throw ex;
         }
@@ -178,80 +187,179 @@ public class OrderServiceImpl implements OrderService {
         OrderEntity existingOrder = orderRepository.findByRazorpayOrderId(razorpayOrderId)
                 .orElseThrow(() -> new RuntimeException("Order Not Found"));
 
-        existingOrder.setPaymentStatus(status);
-        existingOrder.setRazorPaySignature(paymentData.get("razorpay_signature"));
-        existingOrder.setRazorpayPaymentId(paymentData.get("razorpay_payment_id"));
-        orderRepository.save(existingOrder);
-
-        if ("paid".equalsIgnoreCase(status)) {
+        // only the verify that flips the order to paid queues the side effects,
+        // so retried or concurrent calls can't double soldCount or resend the email
+        boolean firstPayment = "paid".equalsIgnoreCase(status) && markPaid(existingOrder.getId());
 
-            // ✅ UPDATE soldCount AFTER PAYMENT
-            for (OrderItem item : existingOrder.getOrderedItems()) {
-                if ("FOOD".equalsIgnoreCase(item.getType())) {
-                    foodService.increaseSoldCount(
-                            item.getFoodId(),
-                            item.getQuantity()
-                    );
-                }
-            }
+        if (firstPayment && !stockHoldService.consume(existingOrder.getId())) {
+            reclaimExpiredStock(existingOrder);
+        }
 
-            cartRepository.deleteByUserId(existingOrder.getUserId());
+        // a late failure callback must not un-pay an order that is already paid
+        Criteria notPaid = "paid".equalsIgnoreCase(status) ? null
+                : Criteria.where("paymentStatus").not().regex("^paid$", "i");
+        orderMutationService.update(existingOrder.getId(), notPaid, new Update()
+                .set("paymentStatus", status)
+                .set("razorPaySignature", paymentData.get("razorpay_signature"))
+                .set("razorpayPaymentId", paymentData.get("razorpay_payment_id")));
 
-            String emailBody = generateOrderEmailHtml(existingOrder);
-            emailService.sendOrderEmail(
-                    existingOrder.getEmail(),
-                    "Your Order Confirmation - " + existingOrder.getId(),
-                    emailBody
-            );
+        if (firstPayment) {
+            // ✅ soldCount, order counts, cart and confirmation email run in the background
+            try {
+                outboxService.enqueue(existingOrder.getId());
+            } catch (Exception e) {
+                // paidEffectsPending stays set; the outbox sweep enqueues it later
+                System.out.println("Outbox enqueue failed for " + existingOrder.getId() + ": " + e.getMessage());
+            }
         }
 
     }
 
     // ------------------- GET ORDERS -------------------
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int TIMELINE_PREVIEW = 50;
+
     @Override
-    public List<OrderResponse> getUserOrders() {
+    public OrderPage getUserOrders(String cursor, int size) {
         String loggedInUserId = userService.findByUserId();
-        List<OrderEntity> list = orderRepository.findByUserId(loggedInUserId);
-        return list.stream().map(this::convertToResponse).collect(Collectors.toList());
+        return getOrdersPage(OrderFilter.builder().userId(loggedInUserId).build(), cursor, size);
     }
 
     @Override
     public OrderResponse getOrderById(String orderId) {
         OrderEntity order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
-        return convertToResponse(order);
+        OrderResponse response = convertToResponse(order);
+        // the latest part of the timeline; older messages come from /{orderId}/timeline
+        response.setDeliveryMessages(orderTimelineService.recent(orderId, TIMELINE_PREVIEW));
+        return response;
     }
 
     @Override
-    public List<OrderResponse> getOrdersOfAllUsers() {
-        List<OrderEntity> list = orderRepository.findAll();
-        return list.stream().map(this::convertToResponse).collect(Collectors.toList());
+    public OrderPage getOrdersPage(OrderFilter filter, String cursor, int size) {
+        return page(filterCriteria(filter != null ? filter : new OrderFilter()), cursor, size);
     }
 
-    @Override
-    public List<OrderResponse> getOrdersFiltered(String userId, String phone) {
-        List<OrderEntity> list;
-        if (userId != null && !userId.isBlank()) list = orderRepository.findByUserId(userId);
-        else if (phone != null && !phone.isBlank()) list = orderRepository.findByPhoneNumber(phone);
-        else list = orderRepository.findAll();
-        return list.stream().map(this::convertToResponse).collect(Collectors.toList());
+    // one keyset page of the orders matching criteria, sorted {createdDate: -1, _id: -1}
+    private OrderPage page(List<Criteria> criteria, String cursor, int size) {
+        int limit = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        if (cursor != null && !cursor.isBlank()) criteria.add(after(cursor));
+
+        Query query = new Query();
+        if (!criteria.isEmpty()) query.addCriteria(new Criteria().andOperator(criteria));
+        query.with(Sort.by(Sort.Direction.DESC, "createdDate", "_id")).limit(limit + 1);
+        SUMMARY_FIELDS.forEach(query.fields()::include);
+
+        // one extra row tells us whether there is a next page
+        List<OrderEntity> found = mongoTemplate.find(query, OrderEntity.class);
+        boolean hasMore = found.size() > limit;
+        List<OrderEntity> page = hasMore ? found.subList(0, limit) : found;
+
+        String nextCursor = hasMore ? cursorOf(page.get(page.size() - 1)) : null;
+        return new OrderPage(
+                page.stream().map(OrderServiceImpl::toSummary).collect(Collectors.toList()),
+                nextCursor,
+                hasMore
+        );
+    }
+
+    // everything a list row shows; the rest of the order is only read by the detail view
+    private static final List<String> SUMMARY_FIELDS = List.of(
+            "userId", "email", "phoneNumber", "userAddress", "amount", "paymentStatus", "orderStatus",
+            "courierName", "currentHub", "assignedDeliveryBoyId", "createdDate",
+            "orderedItems.name", "orderedItems.quantity"
+    );
+
+    private static OrderSummary toSummary(OrderEntity o) {
+        return OrderSummary.builder()
+                .id(o.getId())
+                .userId(o.getUserId())
+                .email(o.getEmail())
+                .phoneNumber(o.getPhoneNumber())
+                .userAddress(o.getUserAddress())
+                .amount(o.getAmount())
+                .paymentStatus(o.getPaymentStatus())
+                .orderStatus(o.getOrderStatus() != null ? o.getOrderStatus().name() : null)
+                .courierName(o.getCourierName())
+                .currentHub(o.getCurrentHub())
+                .assignedDeliveryBoyId(o.getAssignedDeliveryBoyId())
+                .createdDate(o.getCreatedDate() != null ? o.getCreatedDate().toString() : null)
+                .orderedItems(o.getOrderedItems() == null ? List.of() : o.getOrderedItems().stream()
+                        .map(i -> new OrderSummary.Line(i.getName(), i.getQuantity()))
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    private List<Criteria> filterCriteria(OrderFilter filter) {
+        List<Criteria> criteria = new ArrayList<>();
+        if (hasText(filter.getUserId())) criteria.add(Criteria.where("userId").is(filter.getUserId().trim()));
+        if (hasText(filter.getPhone())) criteria.add(Criteria.where("phoneNumber").is(filter.getPhone().trim()));
+        if (hasText(filter.getStatus())) {
+            try {
+                criteria.add(Criteria.where("orderStatus").is(OrderStatus.fromString(filter.getStatus())));
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+            }
+        }
+        if (hasText(filter.getPaymentStatus())) criteria.add(Criteria.where("paymentStatus").is(filter.getPaymentStatus().trim()));
+        if (hasText(filter.getCourier())) criteria.add(Criteria.where("courierName").is(filter.getCourier().trim()));
+        if (hasText(filter.getCoupon())) criteria.add(Criteria.where("couponCode").is(filter.getCoupon().trim()));
+
+        if (filter.getFrom() != null || filter.getTo() != null) {
+            ZoneId zone = ZoneId.systemDefault();
+            Criteria range = Criteria.where("createdDate");
+            if (filter.getFrom() != null) range = range.gte(filter.getFrom().atStartOfDay(zone).toInstant());
+            if (filter.getTo() != null) range = range.lt(filter.getTo().plusDays(1).atStartOfDay(zone).toInstant());
+            criteria.add(range);
+        }
+        return criteria;
+    }
+
+    // the cursor is the sort key of the last order on the previous page: "<createdDate millis>:<id>"
+    private static String cursorOf(OrderEntity last) {
+        long millis = last.getCreatedDate() != null ? last.getCreatedDate().toEpochMilli() : 0;
+        String raw = millis + ":" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // everything that sorts after the cursor under {createdDate: -1, _id: -1}
+    private static Criteria after(String cursor) {
+        Instant createdDate;
+        ObjectId id;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(':');
+            createdDate = Instant.ofEpochMilli(Long.parseLong(raw.substring(0, sep)));
+            id = new ObjectId(raw.substring(sep + 1));
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+        return new Criteria().orOperator(
+                Criteria.where("createdDate").lt(createdDate),
+                Criteria.where("createdDate").is(createdDate).and("_id").lt(id)
+        );
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
     }
 
     // ------------------- UPDATE STATUS -------------------
     @Override
     public void updateOrderStatus(String orderId, String status) {
-        OrderEntity entity = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order Not found"));
-
+        OrderStatus orderStatus;
         try {
-            OrderStatus orderStatus = OrderStatus.fromString(status);
-            entity.setOrderStatus(orderStatus);
-            entity.getStatusTimestamps().put(String.valueOf(orderStatus), LocalDateTime.now());
-            orderRepository.save(entity);
-            messagingTemplate.convertAndSend("/topic/orders", convertToResponse(entity));
+            orderStatus = OrderStatus.fromString(status);
         } catch (IllegalArgumentException e) {
             throw new RuntimeException("Invalid order status: " + status);
         }
+
+        // admin may move an order from any status
+        OrderMutationService.StatusChange change = orderMutationService
+                .changeStatus(orderId, orderStatus, null, null)
+                .orElseThrow();
+        syncOrderCounts(change.order(), change.previous(), orderStatus);
+        messagingTemplate.convertAndSend("/topic/orders", convertToResponse(change.order()));
     }
 
 
@@ -268,14 +376,8 @@ public class OrderServiceImpl implements OrderService {
         if (order.getOrderStatus() == OrderStatus.DELIVERED)
             throw new RuntimeException("Delivered orders cannot be cancelled");
 
-        if (!order.isStockRestored()) {
-            restoreReservedStock(order);
-            order.setStockRestored(true);
-        }
-
-        order.setOrderStatus(OrderStatus.CANCELLED);
-        order.getStatusTimestamps().put(String.valueOf(OrderStatus.CANCELLED), LocalDateTime.now());
-        orderRepository.save(order);
+        List<OrderStatus> cancellable = OrderMutationService.allBut(List.of(OrderStatus.CANCELLED, OrderStatus.DELIVERED));
+        cancelAndRestock(order, cancellable);   // empty: delivered or cancelled meanwhile
     }
 
     @Override
@@ -286,15 +388,10 @@ public class OrderServiceImpl implements OrderService {
 
         if (!order.getUserId().equals(loggedInUserId)) throw new RuntimeException("Unauthorized");
 
-        if (order.getOrderStatus() == OrderStatus.DELIVERED ||
-                order.getOrderStatus() == OrderStatus.CANCELLED ||
-                order.getOrderStatus() == OrderStatus.CANCEL_REQUESTED) {
-            throw new RuntimeException("Cannot cancel this order");
-        }
-
-        order.setOrderStatus(OrderStatus.CANCEL_REQUESTED);
-        order.getStatusTimestamps().put(String.valueOf(OrderStatus.CANCEL_REQUESTED), LocalDateTime.now());
-        orderRepository.save(order);
+        List<OrderStatus> requestable = OrderMutationService.allBut(
+                List.of(OrderStatus.DELIVERED, OrderStatus.CANCELLED, OrderStatus.CANCEL_REQUESTED));
+        orderMutationService.changeStatus(orderId, OrderStatus.CANCEL_REQUESTED, requestable, null)
+                .orElseThrow(() -> new RuntimeException("Cannot cancel this order"));
     }
 
     @Override
@@ -305,14 +402,8 @@ public class OrderServiceImpl implements OrderService {
         if (order.getOrderStatus() != OrderStatus.CANCEL_REQUESTED)
             throw new RuntimeException("Order not requested for cancellation");
 
-        if (!order.isStockRestored()) {
-            restoreReservedStock(order);
-            order.setStockRestored(true);
-        }
-
-        order.setOrderStatus(OrderStatus.CANCELLED);
-        order.getStatusTimestamps().put(String.valueOf(OrderStatus.CANCELLED), LocalDateTime.now());
-        orderRepository.save(order);
+        cancelAndRestock(order, List.of(OrderStatus.CANCEL_REQUESTED))
+                .orElseThrow(() -> new RuntimeException("Order not requested for cancellation"));
     }
 
     // ------------------- COURIER -------------------
@@ -337,15 +428,13 @@ public class OrderServiceImpl implements OrderService {
 */
     @Override
     public void updateCourierDetails(String orderId, String courierName, String trackingId) {
-        OrderEntity order = orderRepository.findById(orderId).orElseThrow();
-
-        order.setCourierName(courierName);
-        order.setCourierTrackingId(trackingId);
-        order.setOrderStatus(OrderStatus.SHIPPED);
-
-        order.addMessage("Order shipped via " + courierName, LocalDateTime.now(), "system", null);
-
-        orderRepository.save(order);
+        orderMutationService.changeStatus(
+                orderId,
+                OrderStatus.SHIPPED,
+                OrderMutationService.allBut(OrderMutationService.FINAL),
+                new Update().set("courierName", courierName).set("courierTrackingId", trackingId)
+        ).orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT, "Order can no longer be shipped"));
+        orderTimelineService.append(orderId, "Order shipped via " + courierName, "system", null);
 
         // Register with ShipTracker
         try {
@@ -359,32 +448,109 @@ public class OrderServiceImpl implements OrderService {
     // ------------------- STOCK HELPERS -------------------
     private void restoreReservedStock(OrderEntity order) {
         if (order.getOrderedItems() == null) return;
-        for (var item : order.getOrderedItems()) {
-            try {
-                if ("FOOD".equalsIgnoreCase(item.getType())) {
-                    foodService.releaseReservedStock(
-                            item.getFoodId(),
-                            item.getQuantity()
-                    );
-                }
+        try {
+            // still held for an unpaid order (or already given back on expiry)
+            if (stockHoldService.release(order.getId())) return;
 
-            } catch (Exception e) {
-                throw new RuntimeException("Failed to restore stock for item: " + item.getFoodId(), e);
+            stockReservationService.release(
+                    foodQuantities(order.getOrderedItems()), "system", "cancel_order_restore");
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to restore stock for order: " + order.getId(), e);
+        }
+    }
+
+    // cancels the order and claims stockRestored in the same write, so stock only
+    // goes back for an order that really was cancelled, and only once; a failed
+    // restore gives the claim back so the stock can still be recovered
+    private Optional<OrderMutationService.StatusChange> cancelAndRestock(OrderEntity order, List<OrderStatus> from) {
+        Optional<OrderMutationService.StatusChange> change = orderMutationService.changeStatus(
+                order.getId(), OrderStatus.CANCELLED, from,
+                Criteria.where("stockRestored").ne(true),
+                new Update().set("stockRestored", true));
+        if (change.isEmpty()) {
+            // stock already back (hold expired): only the status changes
+            change = orderMutationService.changeStatus(order.getId(), OrderStatus.CANCELLED, from, null);
+            change.ifPresent(c -> syncOrderCounts(c.order(), c.previous(), OrderStatus.CANCELLED));
+            return change;
+        }
+
+        syncOrderCounts(change.get().order(), change.get().previous(), OrderStatus.CANCELLED);
+        try {
+            restoreReservedStock(order);
+        } catch (RuntimeException e) {
+            orderMutationService.update(order.getId(), null, new Update().set("stockRestored", false));
+            throw e;
+        }
+        return change;
+    }
+
+    // payment arrived after the hold expired and its stock went back on sale
+    private void reclaimExpiredStock(OrderEntity order) {
+        List<StockShortage> shortages = stockReservationService.reserve(
+                foodQuantities(order.getOrderedItems()), "user", "order_reservation");
+
+        if (shortages.isEmpty()) {
+            stockHoldService.reclaimed(order.getId());
+            orderMutationService.update(order.getId(), null, new Update().set("stockRestored", false));
+            orderMutationService.changeStatus(order.getId(), OrderStatus.ORDER_PLACED, List.of(OrderStatus.EXPIRED), null);
+        } else {
+            orderTimelineService.append(
+                    order.getId(),
+                    "Paid after the stock hold expired; out of stock: " + shortages.stream()
+                            .map(sh -> sh.getFoodName() != null ? sh.getFoodName() : sh.getFoodId())
+                            .collect(Collectors.joining(", ")),
+                    "system", "hold_expired");
+        }
+    }
+
+    // foodId -> total quantity over all FOOD lines
+    private Map<String, Integer> foodQuantities(List<OrderItem> items) {
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItem item : items) {
+            if ("FOOD".equalsIgnoreCase(item.getType()) && item.getFoodId() != null
+                    && item.getQuantity() != null) {
+                quantities.merge(item.getFoodId(), item.getQuantity(), Integer::sum);
             }
         }
+        return quantities;
     }
 
-    // ------------------- EMAIL -------------------
-    public String generateOrderEmailHtml(OrderEntity order) {
-        Context context = new Context();
-        context.setVariable("order", order);
-        return templateEngine.process("order-success-email", context);
+    // ------------------- ORDER COUNTERS -------------------
+    // FoodEntity.orderCount counts paid orders that are not cancelled
+
+    // atomic unpaid -> paid; false if the order was already paid
+    private boolean markPaid(String orderId) {
+        return mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(orderId).and("paymentStatus").not().regex("^paid$", "i")),
+                new Update().set("paymentStatus", "paid").set("paidEffectsPending", true),
+                OrderEntity.class
+        ).getModifiedCount() > 0;
+    }
+
+    private boolean isPaid(OrderEntity order) {
+        return "paid".equalsIgnoreCase(order.getPaymentStatus());
+    }
+
+    private Set<String> orderedFoodIds(OrderEntity order) {
+        if (order.getOrderedItems() == null) return Collections.emptySet();
+        return order.getOrderedItems().stream()
+                .filter(i -> "FOOD".equalsIgnoreCase(i.getType()) && i.getFoodId() != null)
+                .map(OrderItem::getFoodId)
+                .collect(Collectors.toSet());
+    }
+
+    private void syncOrderCounts(OrderEntity order, OrderStatus from, OrderStatus to) {
+        if (!isPaid(order) || from == to) return;
+        if (to == OrderStatus.CANCELLED) {
+            foodService.adjustOrderCounts(orderedFoodIds(order), -1);
+        } else if (from == OrderStatus.CANCELLED) {
+            foodService.adjustOrderCounts(orderedFoodIds(order), 1);
+        }
     }
 
     // ------------------- ENTITY / RESPONSE CONVERSION -------------------
-    private OrderEntity convertToEntity(OrderRequest request) {
+    private OrderEntity convertToEntity(OrderRequest request, Setting setting) {
 
-        Setting setting = settingService.getSettings();
         double taxRate = setting.getTaxPercentage() != null ? setting.getTaxPercentage() : 0.0;
         double shipping = setting.getShippingCharge() != null ? setting.getShippingCharge() : 0.0;
 
@@ -397,6 +563,18 @@ public class OrderServiceImpl implements OrderService {
             }
         }
 
+        // every food and combo of the cart in one query each
+        Set<String> foodIds = new HashSet<>();
+        Set<String> comboIds = new HashSet<>();
+        for (OrderItem item : request.getOrderedItems()) {
+            if ("FOOD".equalsIgnoreCase(item.getType()) && item.getFoodId() != null) foodIds.add(item.getFoodId());
+            if ("COMBO".equalsIgnoreCase(item.getType()) && item.getComboId() != null) comboIds.add(item.getComboId());
+        }
+        Map<String, FoodEntity> foods = new HashMap<>();
+        if (!foodIds.isEmpty()) foodRepository.findAllById(foodIds).forEach(f -> foods.put(f.getId(), f));
+        Map<String, ComboEntity> combos = new HashMap<>();
+        if (!comboIds.isEmpty()) comboRepository.findAllById(comboIds).forEach(c -> combos.put(c.getId(), c));
+
         List<OrderItem> finalItems = new ArrayList<>();
 
         // ✅ FIX: pricing calculated PER ITEM
@@ -408,8 +586,10 @@ public class OrderServiceImpl implements OrderService {
                     throw new RuntimeException("Food ID missing");
                 }
 
-                FoodEntity food = foodRepository.findById(item.getFoodId())
-                        .orElseThrow(() -> new RuntimeException("Food not found"));
+                FoodEntity food = foods.get(item.getFoodId());
+                if (food == null) {
+                    throw new RuntimeException("Food not found");
+                }
 
                 double mrp = food.getMrp();
                 double sellingPrice = foodService.getEffectivePrice(food);
@@ -444,8 +624,10 @@ public class OrderServiceImpl implements OrderService {
                     throw new RuntimeException("Combo ID missing");
                 }
 
-                ComboEntity combo = comboRepository.findById(item.getComboId())
-                        .orElseThrow(() -> new RuntimeException("Combo not found"));
+                ComboEntity combo = combos.get(item.getComboId());
+                if (combo == null) {
+                    throw new RuntimeException("Combo not found");
+                }
 
                 double mrp = combo.getOriginalPrice();
                 double sellingPrice = combo.getComboPrice();
@@ -516,6 +698,11 @@ public class OrderServiceImpl implements OrderService {
 
 
     private OrderResponse convertToResponse(OrderEntity newOrder) {
+        return convertToResponse(newOrder, settingService.getSettings());
+    }
+
+    // createOrder passes the settings it already priced the order with
+    private OrderResponse convertToResponse(OrderEntity newOrder, Setting setting) {
         double subtotal = newOrder.getOrderedItems() != null
                 ? newOrder.getOrderedItems().stream()
                 .mapToDouble(i ->
@@ -525,8 +712,6 @@ public class OrderServiceImpl implements OrderService {
                 : 0;
 
 
-
-        Setting setting = settingService.getSettings();
         double taxRate = setting.getTaxPercentage() != null ? setting.getTaxPercentage() : 0.0;
         double shipping = setting.getShippingCharge() != null ? setting.getShippingCharge() : 0.0;
 
@@ -549,7 +734,7 @@ public class OrderServiceImpl implements OrderService {
                 .email(newOrder.getEmail())
                 .courierName(newOrder.getCourierName())
                 .courierTrackingId(newOrder.getCourierTrackingId())
-                .deliveryMessages(newOrder.getDeliveryMessages())
+                .currentHub(newOrder.getCurrentHub())
                 .phoneNumber(newOrder.getPhoneNumber())
                 .orderedItems(newOrder.getOrderedItems())
                 .statusTimestamps(newOrder.getStatusTimestamps())
@@ -575,100 +760,145 @@ public class OrderServiceImpl implements OrderService {
         if (!order.getUserId().equals(userId))
             throw new RuntimeException("Unauthorized");
 
-        if (order.getOrderStatus().ordinal() >= OrderStatus.SHIPPED.ordinal())
-            throw new RuntimeException("Cannot change address after shipping");
-
-        order.setUserAddress(newAddress);
-        orderRepository.save(order);
+        // only while not shipped yet, checked again by the write itself
+        orderMutationService.update(
+                orderId,
+                Criteria.where("orderStatus").in(OrderMutationService.BEFORE_SHIPPING),
+                new Update().set("userAddress", newAddress)
+        ).orElseThrow(() -> new RuntimeException("Cannot change address after shipping"));
     }
 
     // Helper: centralised status change that adds timestamp + optional delivery message + websocket publish
     @Override
     public void setOrderStatusWithTimestamp(String orderId, String status, String actor, String message,String reason) {
-        OrderEntity order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
-
         OrderStatus newStatus = OrderStatus.fromString(status);
-        order.setOrderStatus(newStatus);
-        order.getStatusTimestamps().put(String.valueOf(newStatus), LocalDateTime.now());
+        OrderMutationService.StatusChange change = orderMutationService
+                .changeStatus(orderId, newStatus, null, null)
+                .orElseThrow();
+        syncOrderCounts(change.order(), change.previous(), newStatus);
 
         if (message != null && !message.isBlank()) {
-            if (order.getDeliveryMessages() == null) order.setDeliveryMessages(new ArrayList<>());
-            order.getDeliveryMessages().add(
-                    DeliveryMessage.builder()
-                            .message(message)
-                            .timestamp(LocalDateTime.now())
-                            .actor(actor)
-                            .reason(reason)
-                            .build()
-            );
-
+            orderTimelineService.append(orderId, message, actor, reason);
         }
 
-        orderRepository.save(order);
-
         // push websocket update if you want to keep realtime UI
         try {
-            messagingTemplate.convertAndSend("/topic/orders", convertToResponse(order));
+            messagingTemplate.convertAndSend("/topic/orders", convertToResponse(change.order()));
         } catch (Exception ignore) {}
     }
 
-    // List orders for a hub — orders that have last hubHistory entry equal to hubName OR orderStatus == ORDER_AT_HUB
+    // ------------------- HUB OPERATIONS -------------------
+    // currentHub holds this key, so "Trichy", "trichy " and "TRICHY" are one queue;
+    // hubHistory keeps the name as it was entered
+    private static String hubKey(String hubName) {
+        return hubName.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // orders waiting at or dispatched from a hub, newest first; served by the (currentHub, orderStatus) index
     @Override
-    public List<OrderResponse> getOrdersForHub(String hubName) {
-        List<OrderEntity> all = orderRepository.findAll();
-        // filter: orders where last hubHistory hubName equals this or status == ORDER_AT_HUB and hubName in hubHistory OR assigned hub
-        List<OrderEntity> filtered = all.stream().filter(o -> {
-            // if hubHistory last equals hubName
-            if (o.getHubHistory() != null && !o.getHubHistory().isEmpty()) {
-                HubUpdate last = o.getHubHistory().get(o.getHubHistory().size() - 1);
-                if (hubName.equalsIgnoreCase(last.getHubName())) return true;
+    public OrderPage getHubQueue(String hubName, List<String> statuses, String cursor, int size) {
+        if (!hasText(hubName)) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Hub name is required");
+
+        List<OrderStatus> wanted = new ArrayList<>();
+        try {
+            if (statuses == null || statuses.isEmpty()) {
+                wanted.addAll(List.of(OrderStatus.ORDER_AT_HUB, OrderStatus.OUT_FOR_DELIVERY));
+            } else {
+                for (String status : statuses) wanted.add(OrderStatus.fromString(status));
             }
-            // fallback: status = ORDER_AT_HUB and delivery boy not assigned
-            if (o.getOrderStatus() != null && o.getOrderStatus() == OrderStatus.ORDER_AT_HUB) return true;
-            return false;
-        }).collect(Collectors.toList());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        List<Criteria> criteria = new ArrayList<>();
+        criteria.add(Criteria.where("currentHub").is(hubKey(hubName)));
+        criteria.add(Criteria.where("orderStatus").in(wanted));
+        return page(criteria, cursor, size);
+    }
+
+    // the order reached a hub: log it in hubHistory and move it into that hub's queue
+    @Override
+    public OrderResponse recordHubArrival(String orderId, String hubName, String staffName, String message) {
+        if (!hasText(hubName)) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Hub name is required");
+
+        String hub = hubName.trim();
+        HubUpdate arrival = HubUpdate.builder()
+                .hubName(hub)
+                .staffName(staffName)
+                .message(hasText(message) ? message : "Order reached " + hub + " hub")
+                .time(LocalDateTime.now())
+                .build();
+
+        OrderMutationService.StatusChange change = orderMutationService.changeStatus(
+                orderId,
+                OrderStatus.ORDER_AT_HUB,
+                OrderMutationService.allBut(OrderMutationService.FINAL),
+                new Update().push("hubHistory", arrival).set("currentHub", hubKey(hub))
+        ).orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT, "Order is already delivered, cancelled or expired"));
+        syncOrderCounts(change.order(), change.previous(), OrderStatus.ORDER_AT_HUB);
 
-        return filtered.stream().map(this::convertToResponse).collect(Collectors.toList());
+        OrderResponse response = convertToResponse(change.order());
+        try {
+            messagingTemplate.convertAndSend("/topic/orders", response);
+        } catch (Exception ignore) {}
+        return response;
     }
 
-    // List orders for a delivery boy (by assignedDeliveryBoyId) and statuses OUT_FOR_DELIVERY or ORDER_AT_HUB
+    // ------------------- DELIVERY PARTNER QUEUE -------------------
+    // a partner's open orders (ORDER_AT_HUB / OUT_FOR_DELIVERY), newest first, only the fields the app shows;
+    // one range of the (assignedDeliveryBoyId, orderStatus) index, so the app can poll it cheaply
+    private static final int MAX_DELIVERY_QUEUE = 200;
+
     @Override
-    public List<OrderResponse> getOrdersForDeliveryBoy(String deliveryBoyId) {
-        List<OrderEntity> list = orderRepository.findAll().stream()
-                .filter(o -> deliveryBoyId.equals(o.getAssignedDeliveryBoyId()))
-                .filter(o -> o.getOrderStatus() == OrderStatus.ORDER_AT_HUB || o.getOrderStatus() == OrderStatus.OUT_FOR_DELIVERY)
+    public List<DeliveryTask> getDeliveryQueue(String deliveryBoyId) {
+        if (!hasText(deliveryBoyId)) return List.of();
+
+        Query query = Query.query(Criteria.where("assignedDeliveryBoyId").is(deliveryBoyId)
+                        .and("orderStatus").in(OrderStatus.ORDER_AT_HUB, OrderStatus.OUT_FOR_DELIVERY))
+                .with(Sort.by(Sort.Direction.DESC, "createdDate"))
+                .limit(MAX_DELIVERY_QUEUE);
+        query.fields()
+                .include("orderStatus").include("paymentStatus").include("amount")
+                .include("userAddress").include("phoneNumber").include("currentHub").include("createdDate")
+                .include("orderedItems.name").include("orderedItems.quantity");
+
+        return mongoTemplate.find(query, OrderEntity.class).stream()
+                .map(o -> DeliveryTask.builder()
+                        .id(o.getId())
+                        .orderStatus(o.getOrderStatus() != null ? o.getOrderStatus().name() : null)
+                        .paymentStatus(o.getPaymentStatus())
+                        .amount(o.getAmount())
+                        .userAddress(o.getUserAddress())
+                        .phoneNumber(o.getPhoneNumber())
+                        .currentHub(o.getCurrentHub())
+                        .items(o.getOrderedItems() == null ? List.of() : o.getOrderedItems().stream()
+                                .map(i -> i.getName() + " x" + i.getQuantity())
+                                .collect(Collectors.toList()))
+                        .createdDate(o.getCreatedDate() != null ? o.getCreatedDate().toString() : null)
+                        .build())
                 .collect(Collectors.toList());
-        return list.stream().map(this::convertToResponse).collect(Collectors.toList());
     }
+
     @Override
     public String savePodImage(String orderId, MultipartFile file) throws Exception {
-        OrderEntity order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
+        if (!orderRepository.existsById(orderId)) throw new RuntimeException("Order not found");
 
         String url = fileStorageService.store(file);
-
-        if (order.getPodImageUrls() == null) order.setPodImageUrls(new ArrayList<>());
-        order.getPodImageUrls().add(url);
+        orderMutationService.update(orderId, null, new Update().push("podImageUrls", url));
 
         // add delivery message
-        if (order.getDeliveryMessages() == null) order.setDeliveryMessages(new ArrayList<>());
-        order.getDeliveryMessages().add(DeliveryMessage.builder()
-                .message("POD uploaded")
-                .timestamp(LocalDateTime.now())
-                .build());
-
-        orderRepository.save(order);
+        orderTimelineService.append(orderId, "POD uploaded", null, null);
         return url;
     }
 
     @Override
     public void assignDeliveryBoy(String orderId, String deliveryBoyId) {
-        OrderEntity order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
-
-        order.setAssignedDeliveryBoyId(deliveryBoyId);
-        orderRepository.save(order);
+        orderMutationService.updateOrConflict(
+                orderId,
+                Criteria.where("orderStatus").nin(OrderMutationService.FINAL),
+                new Update().set("assignedDeliveryBoyId", deliveryBoyId),
+                "Order is already delivered, cancelled or expired"
+        );
     }
 
 
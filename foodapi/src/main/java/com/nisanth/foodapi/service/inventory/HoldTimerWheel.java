@@ -0,0 +1,114 @@
+package com.nisanth.foodapi.service.inventory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Hashed timer wheel for hold deadlines.
+ *
+ * Deadlines are rounded up to the next tick and dropped into
+ * {@code slot = tick % size}; each tick only looks at its own slot, so
+ * scheduling, cancelling and expiring are O(1) no matter how many holds are
+ * open. Keys whose deadline lies further than one revolution away simply stay
+ * in their slot until their tick comes round.
+ */
+class HoldTimerWheel {
+
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(30);
+
+    private record Timeout(String key, long deadlineTick) {}
+
+    private final long tickMillis;
+    private final List<Set<Timeout>> slots;
+    private final Map<String, Timeout> byKey = new ConcurrentHashMap<>();
+    private final Consumer<String> onExpire;
+    private final LongSupplier clock;
+    private final ScheduledExecutorService ticker;
+
+    private volatile long currentTick;
+
+    HoldTimerWheel(Duration tick, int size, Consumer<String> onExpire) {
+        this(tick, size, onExpire, System::currentTimeMillis);
+    }
+
+    // clock in epoch millis; tests drive it by hand
+    HoldTimerWheel(Duration tick, int size, Consumer<String> onExpire, LongSupplier clock) {
+        this.tickMillis = Math.max(1, tick.toMillis());
+        this.onExpire = onExpire;
+        this.clock = clock;
+        this.slots = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) slots.add(ConcurrentHashMap.newKeySet());
+        this.currentTick = clock.getAsLong() / tickMillis;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "stock-hold-wheel");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    void start() {
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void stop() {
+        ticker.shutdownNow();
+    }
+
+    /** (Re)schedule a key; past deadlines fire on the next tick. */
+    void schedule(String key, Instant deadline) {
+        long deadlineTick = Math.max(
+                currentTick + 1,
+                (deadline.toEpochMilli() + tickMillis - 1) / tickMillis);
+        Timeout timeout = new Timeout(key, deadlineTick);
+
+        Timeout previous = byKey.put(key, timeout);
+        if (previous != null) slot(previous.deadlineTick()).remove(previous);
+        slot(deadlineTick).add(timeout);
+    }
+
+    void cancel(String key) {
+        Timeout previous = byKey.remove(key);
+        if (previous != null) slot(previous.deadlineTick()).remove(previous);
+    }
+
+    int pending() {
+        return byKey.size();
+    }
+
+    void tick() {
+        long now = clock.getAsLong() / tickMillis;
+        // catch up on ticks missed while the thread was busy (e.g. a slow sweep)
+        for (long t = currentTick + 1; t <= now; t++) {
+            currentTick = t;
+            expire(t);
+        }
+    }
+
+    private void expire(long tick) {
+        Set<Timeout> slot = slot(tick);
+        for (Timeout timeout : slot) {
+            if (timeout.deadlineTick() > tick) continue;   // a later revolution
+
+            slot.remove(timeout);
+            if (!byKey.remove(timeout.key(), timeout)) continue;   // rescheduled meanwhile
+            try {
+                onExpire.accept(timeout.key());
+            } catch (Exception e) {
+                // keep the wheel turning and try this key again later
+                System.out.println("Stock hold expiry failed for " + timeout.key() + ": " + e.getMessage());
+                schedule(timeout.key(), Instant.now().plus(RETRY_DELAY));
+            }
+        }
+    }
+
+    private Set<Timeout> slot(long tick) {
+        return slots.get((int) Math.floorMod(tick, (long) slots.size()));
+    }
+}
@@ -0,0 +1,562 @@
+package com.nisanth.foodapi.service.inventory;
+
+import com.nisanth.foodapi.entity.FoodEntity;
+import com.nisanth.foodapi.entity.HotStockInstanceEntity;
+import com.nisanth.foodapi.entity.StockLogEntity;
+import com.nisanth.foodapi.service.catalog.CatalogCache;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory stock for hot SKUs (flash-sale items every checkout goes for).
+ *
+ * A hot food leases a batch of units out of its Mongo {@code stock} into
+ * striped counters; reservations take from a stripe with a single CAS and
+ * only come back to Mongo when the stripes run dry. The lease is recorded on
+ * the food ({@code hotLeases.<instance>}), so several instances can each hold
+ * one without overselling. A background flush writes consumed units to the
+ * lease ledger and stock log, and idle auto-promoted foods hand their
+ * remaining units back.
+ *
+ * A food is hot when an admin pins it ({@code hotStock}) or when
+ * {@code stock.hot.auto-concurrency} reservations hit it at the same time.
+ * Units taken after the last flush are handed back on an unclean restart,
+ * so a crash can oversell by at most one flush interval of sales.
+ *
+ * An absolute stock edit revokes every instance's leases at once: it clears
+ * the ledger and bumps {@code hotLeaseEpoch}. Every write a pool makes is
+ * conditional on the epoch it leased under, so owners notice on their next
+ * flush, drop their units and lease again from the new stock.
+ *
+ * A lease never takes more than {@code stock.hot.lease-share} of what is
+ * left in Mongo. Once that is too little for a take, the pool hands its
+ * units back and the food is reserved in Mongo until the next flush, so the
+ * last units of a sale stay reachable from every instance.
+ */
+@Service
+@RequiredArgsConstructor
+public class HotStockCounters {
+
+    enum Take { TAKEN, COLD }
+
+    static final String LEASES = "hotLeases";
+    static final String EPOCH = "hotLeaseEpoch";
+
+    // one stripe per 64-byte line, so neighbouring stripes don't share a cache line
+    private static final int PAD = 8;
+    private static final long AVAILABLE = 0xFFFFFFFFL;
+
+    private final MongoTemplate mongoTemplate;
+    private final StockLogWriter stockLogWriter;
+    private final CatalogCache catalogCache;
+
+    // 0 = one stripe per core
+    @Value("${stock.hot.stripes:0}")
+    private int stripeCount;
+
+    // units moved into memory per trip to Mongo
+    @Value("${stock.hot.lease:32}")
+    private int leaseSize;
+
+    // most of the remaining Mongo stock one lease may take
+    @Value("${stock.hot.lease-share:0.25}")
+    private double leaseShare;
+
+    @Value("${stock.hot.flush:PT1S}")
+    private Duration flushInterval;
+
+    // concurrent reservations of one food that promote it (0 = pinned foods only)
+    @Value("${stock.hot.auto-concurrency:8}")
+    private int autoConcurrency;
+
+    // auto-promoted foods without sales for this long go back to Mongo
+    @Value("${stock.hot.idle:PT5M}")
+    private Duration idleTimeout;
+
+    // must be unique per running instance; start() refuses an id another instance holds
+    @Value("${stock.hot.instance-id:${HOSTNAME:local}}")
+    private String instanceId;
+
+    // an instance-id claim without heartbeat for this long may be taken over
+    @Value("${stock.hot.instance-timeout:PT30S}")
+    private Duration instanceTimeout;
+
+    private final String instanceToken = UUID.randomUUID().toString();
+    private volatile long lastHeartbeat;
+
+    private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+    private final Map<String, Integer> inFlight = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService flusher;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        instanceId = instanceId.replaceAll("[.$]", "_");
+        if (stripeCount <= 0) stripeCount = Runtime.getRuntime().availableProcessors();
+
+        claimInstanceId();
+        reclaimLeases();
+
+        Query pinned = Query.query(Criteria.where("hotStock").is(true));
+        pinned.fields().include("_id");
+        for (FoodEntity food : mongoTemplate.find(pinned, FoodEntity.class)) {
+            pools.putIfAbsent(food.getId(), new Pool(food.getId(), true));
+        }
+
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "hot-stock-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        long millis = Math.max(1, flushInterval.toMillis());
+        flusher.scheduleWithFixedDelay(this::flushAll, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher != null) flusher.shutdownNow();
+        for (String foodId : new ArrayList<>(pools.keySet())) {
+            Pool pool = pools.remove(foodId);
+            if (pool != null) pool.drain();
+        }
+        mongoTemplate.remove(
+                Query.query(Criteria.where("_id").is(instanceId).and("token").is(instanceToken)),
+                HotStockInstanceEntity.class);
+    }
+
+    // ------------------- RESERVE -------------------
+
+    /** Take qty units of a hot food from memory; COLD if the food is not hot. */
+    Take take(String foodId, int qty) {
+        Pool pool = pools.get(foodId);
+        return pool != null ? pool.take(qty) : Take.COLD;
+    }
+
+    /** Undo takes of an order that failed on another line. */
+    void giveBack(Map<String, Integer> taken) {
+        taken.forEach((foodId, qty) -> {
+            Pool pool = pools.get(foodId);
+            if (pool != null && pool.giveBack(qty)) return;
+            // pool drained meanwhile: it settled these units as sold and handed the
+            // rest back to Mongo, so these go there too. If the leases were revoked
+            // instead, the absolute stock edit already counted them.
+            mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(foodId).and(LEASES + "." + instanceId).exists(true)),
+                    new Update().inc("stock", qty).set("outOfStock", false),
+                    FoodEntity.class);
+        });
+    }
+
+    /** Units currently in memory (not visible in the food's Mongo stock). */
+    int available(String foodId) {
+        Pool pool = pools.get(foodId);
+        return pool != null ? pool.available() : 0;
+    }
+
+    /** Contention tracking around a Mongo reservation of these foods. */
+    void enter(Collection<String> foodIds) {
+        for (String foodId : foodIds) {
+            int concurrent = inFlight.merge(foodId, 1, Integer::sum);
+            if (autoConcurrency > 0 && concurrent >= autoConcurrency && !pools.containsKey(foodId)
+                    && pools.putIfAbsent(foodId, new Pool(foodId, false)) == null) {
+                System.out.println("🔥 Hot stock mode on for " + foodId + " (" + concurrent + " concurrent reservations)");
+            }
+        }
+    }
+
+    void exit(Collection<String> foodIds) {
+        for (String foodId : foodIds) {
+            inFlight.computeIfPresent(foodId, (id, n) -> n <= 1 ? null : n - 1);
+        }
+    }
+
+    // ------------------- ADMIN -------------------
+
+    /** Pin a food to hot mode (or unpin it and hand its units back). */
+    public void pin(String foodId, boolean enabled) {
+        boolean found = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(foodId)),
+                new Update().set("hotStock", enabled),
+                FoodEntity.class
+        ).getMatchedCount() > 0;
+        if (!found) throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Food not found");
+
+        Pool pool = pools.remove(foodId);
+        if (pool != null) pool.drain();
+        if (enabled) pools.putIfAbsent(foodId, new Pool(foodId, true));
+    }
+
+    /**
+     * Add to an absolute stock edit of a food: drops every instance's leases,
+     * whose units the new stock level replaces. Call {@link #revoked} after
+     * the write.
+     */
+    public static Update revokeLeases(Update update) {
+        return update.unset(LEASES).inc(EPOCH, 1);
+    }
+
+    /** Drop this instance's units of a food whose leases were just revoked; other instances notice on their next flush. */
+    public void revoked(String foodId) {
+        Pool pool = pools.get(foodId);
+        if (pool != null) pool.revoke();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> foods = new TreeMap<>();
+        pools.forEach((foodId, pool) -> foods.put(foodId, Map.of(
+                "available", pool.available(),
+                "pinned", pool.pinned)));
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("instance", instanceId);
+        stats.put("stripes", stripeCount);
+        stats.put("foods", foods);
+        return stats;
+    }
+
+    // ------------------- FLUSH -------------------
+
+    private void flushAll() {
+        long now = System.currentTimeMillis();
+        if (now - lastHeartbeat >= instanceTimeout.toMillis() / 3) heartbeat(now);
+        for (Pool pool : pools.values()) {
+            try {
+                pool.flush();
+                if (!pool.pinned && now - pool.lastSale > idleTimeout.toMillis() && pools.remove(pool.foodId, pool)) {
+                    pool.drain();
+                }
+            } catch (Exception e) {
+                // keep the counted units; the next flush tries again
+                System.out.println("Hot stock flush failed for " + pool.foodId + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // ------------------- INSTANCE ID -------------------
+
+    // two instances on one id would settle each other's leases; wait out a
+    // crashed predecessor's claim, refuse to start next to a live one
+    private void claimInstanceId() {
+        long deadline = System.currentTimeMillis() + instanceTimeout.toMillis() + flushInterval.toMillis();
+        while (true) {
+            Date now = new Date();
+            Query free = Query.query(new Criteria().andOperator(
+                    Criteria.where("_id").is(instanceId),
+                    new Criteria().orOperator(
+                            Criteria.where("heartbeatAt").lt(new Date(now.getTime() - instanceTimeout.toMillis())),
+                            Criteria.where("token").is(instanceToken))));
+            try {
+                mongoTemplate.upsert(free,
+                        new Update().set("token", instanceToken).set("heartbeatAt", now),
+                        HotStockInstanceEntity.class);
+                lastHeartbeat = now.getTime();
+                return;
+            } catch (DuplicateKeyException e) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new IllegalStateException("stock.hot.instance-id '" + instanceId
+                            + "' is in use by another running instance; give every instance its own id");
+                }
+            }
+            try {
+                Thread.sleep(1_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while claiming stock.hot.instance-id " + instanceId);
+            }
+        }
+    }
+
+    private void heartbeat(long now) {
+        long claimed = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(instanceId).and("token").is(instanceToken)),
+                new Update().set("heartbeatAt", new Date(now)),
+                HotStockInstanceEntity.class
+        ).getMatchedCount();
+        lastHeartbeat = now;
+        if (claimed == 0) {
+            System.out.println("⚠️ Lost the claim on stock.hot.instance-id " + instanceId + " to another instance");
+        }
+    }
+
+    // leases left behind by a previous run of this instance go back to stock
+    private void reclaimLeases() {
+        String field = LEASES + "." + instanceId;
+        Query leased = Query.query(Criteria.where(field).exists(true));
+        leased.fields().include(LEASES);
+
+        for (FoodEntity food : mongoTemplate.find(leased, FoodEntity.class)) {
+            int units = food.getHotLeases().getOrDefault(instanceId, 0);
+            Update update = new Update().unset(field);
+            if (units > 0) update.inc("stock", units).set("outOfStock", false);
+            mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(food.getId()).and(field).is(units)),
+                    update, FoodEntity.class);
+        }
+    }
+
+    private void log(FoodEntity food, int consumed) {
+        if (food == null || consumed == 0) return;
+        int newStock = food.getStock() + leased(food);
+        stockLogWriter.append(StockLogEntity.builder()
+                .foodId(food.getId())
+                .foodName(food.getName())
+                .oldStock(newStock + consumed)
+                .newStock(newStock)
+                .change(-consumed)
+                .updatedBy("user")
+                .reason("order_reservation")
+                .timestamp(new Date())
+                .build());
+    }
+
+    private static int leased(FoodEntity food) {
+        if (food.getHotLeases() == null) return 0;
+        return food.getHotLeases().values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    private static int units(long stripe) {
+        return (int) (stripe & AVAILABLE);
+    }
+
+    private static int sold(long stripe) {
+        return (int) (stripe >> 32);
+    }
+
+    // ------------------- POOL -------------------
+
+    /**
+     * Striped units of one food. Each stripe packs "consumed since last
+     * flush" (high int) and "available" (low int) into one long, so a take
+     * and its accounting are the same CAS and a flush never loses a count.
+     */
+    private final class Pool {
+
+        private final String foodId;
+        private final boolean pinned;
+        private final AtomicLongArray stripes = new AtomicLongArray(stripeCount * PAD);
+
+        private boolean closed;                 // guarded by this
+        private long epoch = -1;                // guarded by this; lease epoch of the units held, -1 before the first lease
+        private long coldUntil;                 // guarded by this; stock too low to lease, takes go to Mongo
+        private volatile long lastSale = System.currentTimeMillis();
+
+        private Pool(String foodId, boolean pinned) {
+            this.foodId = foodId;
+            this.pinned = pinned;
+        }
+
+        Take take(int qty) {
+            int home = (int) (Thread.currentThread().getId() % stripeCount);
+            for (int i = 0; i < stripeCount; i++) {
+                int index = ((home + i) % stripeCount) * PAD;
+                long v;
+                while (units(v = stripes.get(index)) >= qty) {
+                    if (stripes.compareAndSet(index, v, v - qty + ((long) qty << 32))) return Take.TAKEN;
+                }
+            }
+            return refillAndTake(home, qty);
+        }
+
+        // no stripe holds qty on its own: pool everything, top up from Mongo, spread the rest
+        private synchronized Take refillAndTake(int home, int qty) {
+            if (closed || System.currentTimeMillis() < coldUntil) return Take.COLD;
+
+            int gathered = 0;
+            int consumed = 0;
+            for (int i = 0; i < stripeCount; i++) {
+                long v = stripes.getAndSet(i * PAD, 0);
+                gathered += units(v);
+                consumed += sold(v);
+            }
+            if (gathered < qty) gathered += lease(Math.max(leaseSize, qty - gathered), qty - gathered);
+
+            boolean taken = gathered >= qty;
+            if (taken) {
+                gathered -= qty;
+                consumed += qty;
+            } else {
+                // too little left to lease: put the units back where every instance can reserve them
+                handBack(gathered);
+                gathered = 0;
+                coldUntil = System.currentTimeMillis() + flushInterval.toMillis();
+            }
+
+            int share = gathered / stripeCount;
+            int extra = gathered % stripeCount;
+            for (int i = 0; i < stripeCount; i++) {
+                int units = share + (i < extra ? 1 : 0);
+                long packed = ((long) (i == home ? consumed : 0) << 32) + units;
+                stripes.addAndGet(i * PAD, packed);
+            }
+            return taken ? Take.TAKEN : Take.COLD;
+        }
+
+        // the food, as long as the leases this pool holds have not been revoked
+        private Criteria current() {
+            Criteria food = Criteria.where("_id").is(foodId);
+            if (epoch < 0) return food;
+            return epoch == 0 ? food.and(EPOCH).in(0L, null) : food.and(EPOCH).is(epoch);
+        }
+
+        // move up to want units (at least need) from Mongo stock into this pool,
+        // never more than the lease share of what is left
+        private int lease(int want, int need) {
+            String field = LEASES + "." + instanceId;
+            for (int attempt = 0; attempt < 3 && want >= need; attempt++) {
+                FoodEntity leased = mongoTemplate.findAndModify(
+                        Query.query(current().and("stock").gte((int) Math.ceil(want / leaseShare))),
+                        new Update().inc("stock", -want).inc(field, want),
+                        FindAndModifyOptions.options().returnNew(true),
+                        FoodEntity.class);
+                if (leased != null) {
+                    epoch = leased.getHotLeaseEpoch();
+                    return want;
+                }
+
+                Query current = Query.query(Criteria.where("_id").is(foodId));
+                current.fields().include("stock").include(EPOCH);
+                FoodEntity food = mongoTemplate.findOne(current, FoodEntity.class);
+                if (food == null) return 0;
+                if (epoch >= 0 && food.getHotLeaseEpoch() != epoch) return 0;   // revoked; the next flush drops this pool
+                want = Math.min(want, (int) (food.getStock() * leaseShare));
+            }
+            return 0;
+        }
+
+        private void handBack(int units) {
+            if (units <= 0) return;
+            boolean returned = mongoTemplate.updateFirst(
+                    Query.query(current()),
+                    new Update().inc(LEASES + "." + instanceId, -units).inc("stock", units).set("outOfStock", false),
+                    FoodEntity.class
+            ).getMatchedCount() > 0;
+            // not returned: the leases were revoked, the new stock level already replaced these units
+            if (returned) catalogCache.invalidateFood(foodId);
+        }
+
+        synchronized boolean giveBack(int qty) {
+            if (closed || System.currentTimeMillis() < coldUntil) return false;
+            int home = (int) (Thread.currentThread().getId() % stripeCount);
+            stripes.addAndGet(home * PAD, qty - ((long) qty << 32));
+            return true;
+        }
+
+        int available() {
+            int total = 0;
+            for (int i = 0; i < stripeCount; i++) total += units(stripes.get(i * PAD));
+            return total;
+        }
+
+        synchronized void flush() {
+            if (closed) return;
+
+            int consumed = 0;
+            int available = 0;
+            for (int i = 0; i < stripeCount; i++) {
+                int index = i * PAD;
+                long v;
+                do {
+                    v = stripes.get(index);
+                } while (!stripes.compareAndSet(index, v, v & AVAILABLE));
+                consumed += sold(v);
+                available += units(v);
+            }
+            if (consumed == 0) {
+                // nothing to settle, but units held under a revoked lease must not be sold on
+                if (epoch >= 0 && !mongoTemplate.exists(Query.query(current()), FoodEntity.class)) revoke();
+                return;
+            }
+
+            lastSale = System.currentTimeMillis();
+            FoodEntity food = mongoTemplate.findAndModify(
+                    Query.query(current()),
+                    new Update().inc(LEASES + "." + instanceId, -consumed),
+                    FindAndModifyOptions.options().returnNew(true),
+                    FoodEntity.class);
+            if (food == null) {
+                revoke(consumed);
+                return;
+            }
+            if (available == 0) {
+                mongoTemplate.updateFirst(
+                        Query.query(Criteria.where("_id").is(foodId).and("stock").lte(0)),
+                        new Update().set("outOfStock", true),
+                        FoodEntity.class);
+            }
+            log(food, consumed);
+            catalogCache.invalidateFood(foodId);
+        }
+
+        // settle consumption and hand every remaining unit back to Mongo
+        synchronized void drain() {
+            if (closed) return;
+            closed = true;
+
+            int consumed = 0;
+            int remaining = 0;
+            for (int i = 0; i < stripeCount; i++) {
+                long v = stripes.getAndSet(i * PAD, 0);
+                consumed += sold(v);
+                remaining += units(v);
+            }
+            if (consumed == 0 && remaining == 0) return;
+
+            Update update = new Update().inc(LEASES + "." + instanceId, -(consumed + remaining));
+            if (remaining > 0) update.inc("stock", remaining).set("outOfStock", false);
+            FoodEntity food = mongoTemplate.findAndModify(
+                    Query.query(current()),
+                    update,
+                    FindAndModifyOptions.options().returnNew(true),
+                    FoodEntity.class);
+            // null: the leases were revoked, the new stock level already replaced these units
+            log(food != null ? food : reload(), consumed);
+            catalogCache.invalidateFood(foodId);
+        }
+
+        // the leases were revoked by an absolute stock edit: drop the units
+        // without writing them back and let a pinned food lease again
+        synchronized void revoke() {
+            revoke(0);
+        }
+
+        private synchronized void revoke(int settled) {
+            if (closed) return;
+            closed = true;
+
+            int consumed = settled;
+            for (int i = 0; i < stripeCount; i++) {
+                consumed += sold(stripes.getAndSet(i * PAD, 0));
+            }
+            if (pools.remove(foodId, this) && pinned) pools.putIfAbsent(foodId, new Pool(foodId, true));
+
+            log(reload(), consumed);
+            catalogCache.invalidateFood(foodId);
+        }
+
+        private FoodEntity reload() {
+            Query query = Query.query(Criteria.where("_id").is(foodId));
+            query.fields().include("name").include("stock").include(LEASES);
+            return mongoTemplate.findOne(query, FoodEntity.class);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.nisanth.foodapi.service.inventory;
+
+import com.nisanth.foodapi.entity.OrderEntity;
+import com.nisanth.foodapi.entity.StockHoldEntity;
+import com.nisanth.foodapi.enumeration.OrderStatus;
+import com.nisanth.foodapi.enumeration.StockHoldStatus;
+import com.nisanth.foodapi.repository.StockHoldRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stock holds for orders that are waiting for payment.
+ *
+ * createOrderWithPayment opens a hold next to the reservation; payment
+ * consumes it, cancellation releases it. Holds still open after
+ * {@code stock.hold.ttl} are released by a timer wheel and their order is
+ * marked EXPIRED, so abandoned checkouts give their stock back on their own.
+ * Every transition is a conditional update on the hold's status, so the
+ * sweeper, payment and cancel paths never release the same stock twice.
+ *
+ * A hold is only on the wheel of the instance that opened it (and of any
+ * instance that starts later). Every instance therefore also sweeps the
+ * ledger for overdue holds every {@code stock.hold.sweep}, so the holds of
+ * a crashed or scaled-away instance still expire.
+ */
+@Service
+@RequiredArgsConstructor
+public class StockHoldService {
+
+    private final MongoTemplate mongoTemplate;
+    private final StockHoldRepository stockHoldRepository;
+    private final StockReservationService stockReservationService;
+
+    // how long an unpaid order may keep its stock
+    @Value("${stock.hold.ttl:PT15M}")
+    private Duration ttl;
+
+    @Value("${stock.hold.tick:PT1S}")
+    private Duration tick;
+
+    // how long settled holds stay in the ledger before Mongo's TTL monitor removes them
+    @Value("${stock.hold.retention:P7D}")
+    private Duration retention;
+
+    // overdue holds whose wheel is gone are picked up this often
+    @Value("${stock.hold.sweep:PT1M}")
+    private Duration sweep;
+
+    private static final int SWEEP_BATCH = 500;
+
+    private HoldTimerWheel wheel;
+    private ScheduledExecutorService sweeper;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        wheel = new HoldTimerWheel(tick, 512, this::expire);
+
+        // holds opened before a restart (already overdue ones fire on the first tick)
+        for (StockHoldEntity hold : stockHoldRepository.findByStatus(StockHoldStatus.HELD)) {
+            wheel.schedule(hold.getOrderId(), hold.getExpiresAt().toInstant());
+        }
+        wheel.start();
+
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "stock-hold-sweep");
+            t.setDaemon(true);
+            return t;
+        });
+        long millis = Math.max(1, sweep.toMillis());
+        sweeper.scheduleWithFixedDelay(this::sweepOverdue, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (sweeper != null) sweeper.shutdownNow();
+        if (wheel != null) wheel.stop();
+    }
+
+    // ------------------- LIFECYCLE -------------------
+
+    /** Record the stock an unpaid order has just reserved. */
+    public void hold(String orderId, Map<String, Integer> lines) {
+        Instant now = Instant.now();
+        Instant expiresAt = now.plus(ttl);
+
+        stockHoldRepository.save(StockHoldEntity.builder()
+                .orderId(orderId)
+                .lines(new LinkedHashMap<>(lines))
+                .status(StockHoldStatus.HELD)
+                .createdAt(Date.from(now))
+                .expiresAt(Date.from(expiresAt))
+                .build());
+
+        if (wheel != null) wheel.schedule(orderId, expiresAt);
+    }
+
+    /**
+     * The order was paid.
+     *
+     * @return false if the hold had already been released (payment came in
+     *         after expiry) and the stock has to be reserved again
+     */
+    public boolean consume(String orderId) {
+        Optional<StockHoldEntity> closed = settle(orderId, StockHoldStatus.CONSUMED, false);
+        if (closed.isPresent()) return true;
+
+        return stockHoldRepository.findByOrderId(orderId)
+                .map(h -> h.getStatus() != StockHoldStatus.RELEASED)
+                .orElse(true);   // orders placed before holds existed
+    }
+
+    /**
+     * The order is being cancelled (or its checkout failed).
+     *
+     * @return true if the hold took care of the stock (released now or
+     *         earlier on expiry); false if the caller still has to put it back
+     */
+    public boolean release(String orderId) {
+        Optional<StockHoldEntity> closed = settle(orderId, StockHoldStatus.RELEASED, false);
+        if (closed.isPresent()) {
+            stockReservationService.release(closed.get().getLines(), "system", "cancel_order_restore");
+            return true;
+        }
+
+        return stockHoldRepository.findByOrderId(orderId)
+                .map(h -> h.getStatus() == StockHoldStatus.RELEASED)
+                .orElse(false);
+    }
+
+    /** Stock of an expired hold was reserved again after a late payment. */
+    public void reclaimed(String orderId) {
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("orderId").is(orderId).and("status").is(StockHoldStatus.RELEASED)),
+                new Update().set("status", StockHoldStatus.CONSUMED).set("settledAt", new Date()),
+                StockHoldEntity.class
+        );
+    }
+
+    // ------------------- EXPIRY -------------------
+
+    void expire(String orderId) {
+        Query paid = Query.query(Criteria.where("_id").is(orderId).and("paymentStatus").regex("^paid$", "i"));
+        if (mongoTemplate.exists(paid, OrderEntity.class)) {
+            // paid just before the deadline; verifyPayment will (or did) consume it
+            settle(orderId, StockHoldStatus.CONSUMED, true);
+            return;
+        }
+
+        Optional<StockHoldEntity> closed = settle(orderId, StockHoldStatus.RELEASED, true);
+        if (closed.isEmpty()) return;
+
+        stockReservationService.release(closed.get().getLines(), "system", "hold_expired");
+
+        LocalDateTime now = LocalDateTime.now();
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(orderId)
+                        .and("paymentStatus").not().regex("^paid$", "i")
+                        .and("orderStatus").ne(OrderStatus.CANCELLED)),
+                new Update()
+                        .set("orderStatus", OrderStatus.EXPIRED)
+                        .set("stockRestored", true)
+                        .set("statusTimestamps." + OrderStatus.EXPIRED, now),
+                OrderEntity.class
+        );
+    }
+
+    // holds past their deadline that no wheel expired (served by the status_expires index)
+    private void sweepOverdue() {
+        try {
+            Query overdue = Query.query(Criteria.where("status").is(StockHoldStatus.HELD)
+                            .and("expiresAt").lte(new Date()))
+                    .with(Sort.by(Sort.Direction.ASC, "expiresAt"))
+                    .limit(SWEEP_BATCH);
+            overdue.fields().include("orderId");
+            for (StockHoldEntity hold : mongoTemplate.find(overdue, StockHoldEntity.class)) {
+                try {
+                    expire(hold.getOrderId());
+                } catch (Exception e) {
+                    System.out.println("Stock hold sweep failed for " + hold.getOrderId() + ": " + e.getMessage());
+                }
+            }
+        } catch (Exception e) {
+            System.out.println("Stock hold sweep failed: " + e.getMessage());
+        }
+    }
+
+    // HELD -> status, atomically; empty if the hold was not open (or, when
+    // onlyIfDue, not yet due)
+    private Optional<StockHoldEntity> settle(String orderId, StockHoldStatus status, boolean onlyIfDue) {
+        Date now = new Date();
+        Criteria open = Criteria.where("orderId").is(orderId).and("status").is(StockHoldStatus.HELD);
+        if (onlyIfDue) open = open.and("expiresAt").lte(now);
+
+        StockHoldEntity closed = mongoTemplate.findAndModify(
+                Query.query(open),
+                new Update()
+                        .set("status", status)
+                        .set("settledAt", now)
+                        .set("purgeAt", Date.from(now.toInstant().plus(retention))),
+                FindAndModifyOptions.options().returnNew(true),
+                StockHoldEntity.class
+        );
+
+        if (closed != null && wheel != null) wheel.cancel(orderId);
+        return Optional.ofNullable(closed);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ttl", ttl.toString());
+        stats.put("scheduled", wheel != null ? wheel.pending() : 0);
+        return stats;
+    }
+}
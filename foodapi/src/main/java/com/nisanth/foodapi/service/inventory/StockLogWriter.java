@@ -0,0 +1,179 @@
+package com.nisanth.foodapi.service.inventory;
+
+import com.nisanth.foodapi.entity.StockLogEntity;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes stock-log entries off the request thread.
+ *
+ * Callers append to a bounded queue; a single writer thread inserts them with
+ * one insertMany per batch, flushing when {@code stock.log.batch-size}
+ * entries are waiting or the oldest has waited {@code stock.log.linger}. A
+ * full queue makes callers wait up to {@code stock.log.offer-timeout} before
+ * the entry is dropped and counted, so a slow or unavailable Mongo can slow
+ * checkout down by at most that much. Shutdown writes whatever is queued.
+ */
+@Component
+@RequiredArgsConstructor
+public class StockLogWriter {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${stock.log.queue-capacity:10000}")
+    private int capacity;
+
+    @Value("${stock.log.batch-size:200}")
+    private int batchSize;
+
+    @Value("${stock.log.linger:PT0.5S}")
+    private Duration linger;
+
+    @Value("${stock.log.offer-timeout:PT0.05S}")
+    private Duration offerTimeout;
+
+    private BlockingQueue<StockLogEntity> queue;
+    private Thread writer;
+    private volatile boolean running;
+
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(capacity);
+        running = true;
+        writer = new Thread(this::run, "stock-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        writer.interrupt();
+        try {
+            writer.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // whatever the writer did not get to
+        List<StockLogEntity> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        for (int from = 0; from < rest.size(); from += batchSize) {
+            insert(rest.subList(from, Math.min(rest.size(), from + batchSize)));
+        }
+    }
+
+    // ------------------- APPEND -------------------
+
+    public void append(StockLogEntity log) {
+        if (log.getTimestamp() == null) log.setTimestamp(new Date());
+        boolean queued;
+        try {
+            queued = queue.offer(log, offerTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+
+        if (queued) {
+            appended.incrementAndGet();
+        } else if (dropped.incrementAndGet() % 1000 == 1) {
+            System.out.println("⚠️ Stock log queue full, dropped " + dropped.get() + " entries so far");
+        }
+    }
+
+    public void appendAll(Collection<StockLogEntity> logs) {
+        for (StockLogEntity log : logs) append(log);
+    }
+
+    // ------------------- WRITER -------------------
+
+    private void run() {
+        List<StockLogEntity> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                StockLogEntity first = queue.poll(linger.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+
+                // fill up until the batch is full or the first entry has lingered long enough
+                long deadline = System.nanoTime() + linger.toNanos();
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long wait = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || wait <= 0) break;
+
+                    StockLogEntity next = queue.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                if (!running) {
+                    // the queue may be full again, so write this batch here; stop() writes the rest
+                    if (!batch.isEmpty()) insert(batch);
+                    return;
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                insert(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void insert(List<StockLogEntity> batch) {
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            try {
+                mongoTemplate.insert(new ArrayList<>(batch), StockLogEntity.class);
+                written.addAndGet(batch.size());
+                batches.incrementAndGet();
+                return;
+            } catch (Exception e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    failed.addAndGet(batch.size());
+                    System.out.println("Stock log batch of " + batch.size() + " lost: " + e.getMessage());
+                    return;
+                }
+                try {
+                    Thread.sleep(200L * attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        StockLogEntity oldest = queue.peek();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queued", queue.size());
+        stats.put("capacity", capacity);
+        stats.put("lagMillis", oldest != null ? System.currentTimeMillis() - oldest.getTimestamp().getTime() : 0);
+        stats.put("appended", appended.get());
+        stats.put("written", written.get());
+        stats.put("batches", batches.get());
+        stats.put("dropped", dropped.get());
+        stats.put("failed", failed.get());
+        return stats;
+    }
+}
@@ -0,0 +1,188 @@
+package com.nisanth.foodapi.service.inventory;
+
+import com.nisanth.foodapi.entity.FoodEntity;
+import com.nisanth.foodapi.entity.StockLogEntity;
+import com.nisanth.foodapi.io.food.StockShortage;
+import com.nisanth.foodapi.service.catalog.CatalogCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * All-or-nothing stock reservation for a whole order.
+ *
+ * Every line is a conditional {@code $inc} ({@code stock >= qty}) sent in one
+ * unordered bulk write. Each successful decrement also tags the food with a
+ * per-call token; if any line was short, exactly the tagged foods are put
+ * back, so concurrent checkouts can never oversell and a failed order leaves
+ * stock as it found it. Lines for hot SKUs are taken from
+ * {@link HotStockCounters} first and go back there if the rest fails.
+ */
+@Service
+@RequiredArgsConstructor
+public class StockReservationService {
+
+    // per-reservation markers on the food document, present only while a call is in flight
+    static final String TOKENS = "reservationTokens";
+
+    private final MongoTemplate mongoTemplate;
+    private final StockLogWriter stockLogWriter;
+    private final CatalogCache catalogCache;
+    private final HotStockCounters hotStockCounters;
+
+    /**
+     * Reserve every line (foodId -> qty) or none of them.
+     *
+     * @return the short lines; empty when the whole order was reserved
+     */
+    public List<StockShortage> reserve(Map<String, Integer> lines, String updatedBy, String reason) {
+        Map<String, Integer> requested = positive(lines);
+        if (requested.isEmpty()) return List.of();
+
+        // hot SKUs come out of memory; the rest goes to Mongo
+        Map<String, Integer> hot = new LinkedHashMap<>();
+        Map<String, Integer> wanted = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> line : requested.entrySet()) {
+            switch (hotStockCounters.take(line.getKey(), line.getValue())) {
+                case TAKEN -> hot.put(line.getKey(), line.getValue());
+                case COLD -> wanted.put(line.getKey(), line.getValue());
+            }
+        }
+        if (wanted.isEmpty()) return List.of();
+
+        List<StockShortage> shortages;
+        hotStockCounters.enter(wanted.keySet());
+        try {
+            shortages = reserveInMongo(wanted, updatedBy, reason);
+        } finally {
+            hotStockCounters.exit(wanted.keySet());
+        }
+        if (!shortages.isEmpty()) hotStockCounters.giveBack(hot);
+        return shortages;
+    }
+
+    private List<StockShortage> reserveInMongo(Map<String, Integer> wanted, String updatedBy, String reason) {
+        String token = UUID.randomUUID().toString();
+
+        BulkOperations reserve = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, FoodEntity.class);
+        wanted.forEach((foodId, qty) -> reserve.updateOne(
+                Query.query(Criteria.where("_id").is(foodId).and("stock").gte(qty)),
+                new Update().inc("stock", -qty).addToSet(TOKENS, token)
+        ));
+        int reserved = reserve.execute().getModifiedCount();
+
+        if (reserved == wanted.size()) {
+            BulkOperations finish = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, FoodEntity.class);
+            finish.updateMulti(
+                    Query.query(Criteria.where("_id").in(wanted.keySet())),
+                    new Update().pull(TOKENS, token));
+            finish.updateMulti(
+                    Query.query(Criteria.where("_id").in(wanted.keySet()).and("stock").lte(0)),
+                    new Update().set("outOfStock", true));
+            finish.execute();
+
+            Map<String, Integer> changes = new LinkedHashMap<>();
+            wanted.forEach((foodId, qty) -> changes.put(foodId, -qty));
+            logChanges(changes, updatedBy, reason);
+            catalogCache.invalidateFoods(wanted.keySet());
+            return List.of();
+        }
+
+        // some line was short: put back exactly the lines this call took
+        Set<String> taken = new HashSet<>();
+        if (reserved > 0) {
+            Query tagged = Query.query(Criteria.where(TOKENS).is(token));
+            tagged.fields().include("_id");
+            for (FoodEntity f : mongoTemplate.find(tagged, FoodEntity.class)) {
+                taken.add(f.getId());
+            }
+
+            BulkOperations undo = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, FoodEntity.class);
+            for (String foodId : taken) {
+                undo.updateOne(
+                        Query.query(Criteria.where("_id").is(foodId).and(TOKENS).is(token)),
+                        new Update().inc("stock", wanted.get(foodId)).pull(TOKENS, token));
+            }
+            undo.execute();
+        }
+
+        return shortages(wanted, wanted.keySet().stream().filter(id -> !taken.contains(id)).toList());
+    }
+
+    /** Put stock back for every line (foodId -> qty), e.g. on cancel or failed checkout. */
+    public void release(Map<String, Integer> lines, String updatedBy, String reason) {
+        Map<String, Integer> released = positive(lines);
+        if (released.isEmpty()) return;
+
+        BulkOperations release = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, FoodEntity.class);
+        released.forEach((foodId, qty) -> release.updateOne(
+                Query.query(Criteria.where("_id").is(foodId)),
+                new Update().inc("stock", qty).set("outOfStock", false)
+        ));
+        release.execute();
+
+        logChanges(released, updatedBy, reason);
+        catalogCache.invalidateFoods(released.keySet());
+    }
+
+    // ------------------- HELPERS -------------------
+
+    private static Map<String, Integer> positive(Map<String, Integer> lines) {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        lines.forEach((foodId, qty) -> {
+            if (foodId != null && qty != null && qty > 0) result.merge(foodId, qty, Integer::sum);
+        });
+        return result;
+    }
+
+    private List<StockShortage> shortages(Map<String, Integer> wanted, List<String> shortIds) {
+        Query query = Query.query(Criteria.where("_id").in(shortIds));
+        query.fields().include("name").include("stock");
+        Map<String, FoodEntity> foods = new HashMap<>();
+        for (FoodEntity f : mongoTemplate.find(query, FoodEntity.class)) {
+            foods.put(f.getId(), f);
+        }
+
+        List<StockShortage> shortages = new ArrayList<>();
+        for (String foodId : shortIds) {
+            FoodEntity food = foods.get(foodId);
+            shortages.add(new StockShortage(
+                    foodId,
+                    food != null ? food.getName() : null,
+                    wanted.get(foodId),
+                    (food != null ? Math.max(0, food.getStock()) : 0) + hotStockCounters.available(foodId)
+            ));
+        }
+        return shortages;
+    }
+
+    // one read-back for names and current stock; the log lines are written in the background;
+    // oldStock is derived from the change, so it is exact unless another write raced us
+    private void logChanges(Map<String, Integer> changes, String updatedBy, String reason) {
+        Query query = Query.query(Criteria.where("_id").in(changes.keySet()));
+        query.fields().include("name").include("stock");
+
+        Date now = new Date();
+        List<StockLogEntity> logs = new ArrayList<>();
+        for (FoodEntity f : mongoTemplate.find(query, FoodEntity.class)) {
+            int change = changes.get(f.getId());
+            logs.add(StockLogEntity.builder()
+                    .foodId(f.getId())
+                    .foodName(f.getName())
+                    .oldStock(f.getStock() - change)
+                    .newStock(f.getStock())
+                    .change(change)
+                    .updatedBy(updatedBy)
+                    .reason(reason)
+                    .timestamp(now)
+                    .build());
+        }
+        stockLogWriter.appendAll(logs);
+    }
+}
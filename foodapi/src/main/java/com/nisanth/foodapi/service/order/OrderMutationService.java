@@ -0,0 +1,137 @@
+package com.nisanth.foodapi.service.order;
+
+import com.nisanth.foodapi.entity.OrderEntity;
+import com.nisanth.foodapi.enumeration.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Writes to existing orders.
+ *
+ * Every change is one findAndModify that sends only the fields it touches
+ * ({@code $set}/{@code $push}) and only applies while the order still
+ * matches a precondition, usually its current status. Mongo bumps
+ * {@code version} on each of them (OrderEntity is {@code @Version}ed), so
+ * admin, webhook, scheduler and customer writes can no longer overwrite each
+ * other's fields, and a whole-document save of a stale copy fails instead of
+ * silently undoing them.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderMutationService {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    /** Statuses in which the customer may still edit address and phone. */
+    public static final List<OrderStatus> BEFORE_SHIPPING = Arrays.stream(OrderStatus.values())
+            .filter(s -> s.ordinal() < OrderStatus.SHIPPED.ordinal())
+            .toList();
+
+    /** Statuses nothing moves an order out of (except an explicit admin status change). */
+    public static final List<OrderStatus> FINAL = List.of(
+            OrderStatus.DELIVERED, OrderStatus.CANCELLED, OrderStatus.EXPIRED);
+
+    /** Every status except the given ones. */
+    public static List<OrderStatus> allBut(Collection<OrderStatus> excluded) {
+        return Arrays.stream(OrderStatus.values()).filter(s -> !excluded.contains(s)).toList();
+    }
+
+    public record StatusChange(OrderStatus previous, OrderEntity order) {}
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Apply {@code update} if the order still matches {@code precondition} (null: any state).
+     *
+     * @return the order as it is after the update; empty if it exists but no longer matches
+     * @throws ResponseStatusException 404 if there is no such order
+     */
+    public Optional<OrderEntity> update(String orderId, Criteria precondition, Update update) {
+        Criteria match = Criteria.where("_id").is(orderId);
+        if (precondition != null) match = new Criteria().andOperator(match, precondition);
+
+        OrderEntity updated = mongoTemplate.findAndModify(
+                Query.query(match),
+                update,
+                FindAndModifyOptions.options().returnNew(true),
+                OrderEntity.class
+        );
+        if (updated != null) return Optional.of(updated);
+
+        if (!mongoTemplate.exists(Query.query(Criteria.where("_id").is(orderId)), OrderEntity.class)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found");
+        }
+        return Optional.empty();
+    }
+
+    /** Like {@link #update}, but a failed precondition is a 409 with {@code conflict} as reason. */
+    public OrderEntity updateOrConflict(String orderId, Criteria precondition, Update update, String conflict) {
+        return update(orderId, precondition, update)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT, conflict));
+    }
+
+    /**
+     * Move the order to {@code to} (stamping statusTimestamps) if its current
+     * status is one of {@code from} (null: any). The change is a compare-and-set
+     * on the status that was read, so the returned previous status is exact;
+     * if another writer changes it in between, this re-reads and tries again.
+     *
+     * @param extra further changes applied in the same write (may be null)
+     * @return empty if the order's status is not one of {@code from}
+     */
+    public Optional<StatusChange> changeStatus(String orderId, OrderStatus to,
+                                               Collection<OrderStatus> from, Update extra) {
+        return changeStatus(orderId, to, from, null, extra);
+    }
+
+    /**
+     * Like {@link #changeStatus(String, OrderStatus, Collection, Update)}, but
+     * the order must also match {@code precondition}; empty if it does not.
+     */
+    public Optional<StatusChange> changeStatus(String orderId, OrderStatus to, Collection<OrderStatus> from,
+                                               Criteria precondition, Update extra) {
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            OrderStatus current = currentStatus(orderId);
+            if (from != null && !from.contains(current)) return Optional.empty();
+
+            Update update = (extra != null ? extra : new Update())
+                    .set("orderStatus", to)
+                    .set("statusTimestamps." + to, LocalDateTime.now());
+
+            Criteria match = Criteria.where("orderStatus").is(current);
+            if (precondition != null) match = new Criteria().andOperator(match, precondition);
+
+            Optional<OrderEntity> updated = update(orderId, match, update);
+            if (updated.isPresent()) return Optional.of(new StatusChange(current, updated.get()));
+
+            // not a status race if the precondition itself no longer holds
+            if (precondition != null && !mongoTemplate.exists(
+                    Query.query(new Criteria().andOperator(Criteria.where("_id").is(orderId), precondition)),
+                    OrderEntity.class)) {
+                return Optional.empty();
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.CONFLICT, "Order is being updated concurrently, please retry");
+    }
+
+    private OrderStatus currentStatus(String orderId) {
+        Query query = Query.query(Criteria.where("_id").is(orderId));
+        query.fields().include("orderStatus");
+        OrderEntity order = mongoTemplate.findOne(query, OrderEntity.class);
+        if (order == null) throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found");
+        return order.getOrderStatus();
+    }
+}
@@ -0,0 +1,96 @@
+package com.nisanth.foodapi.service.outbox;
+
+import com.nisanth.foodapi.entity.OrderEntity;
+import com.nisanth.foodapi.enumeration.OutboxEventType;
+import com.nisanth.foodapi.io.order.OrderItem;
+import com.nisanth.foodapi.repository.CartRepository;
+import com.nisanth.foodapi.service.EmailService;
+import com.nisanth.foodapi.service.FoodService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * What each {@link OutboxEventType} does for a paid order. Runs at least
+ * once, so a crash mid-effect can repeat it; the counter effects claim a
+ * marker on the order first ({@code paidEffectsApplied.<type>}), so a
+ * repeat does not count the order twice.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderPaidEffects {
+
+    private final FoodService foodService;
+    private final CartRepository cartRepository;
+    private final EmailService emailService;
+    private final SpringTemplateEngine templateEngine;
+    private final MongoTemplate mongoTemplate;
+
+    public void apply(OutboxEventType type, OrderEntity order) {
+        switch (type) {
+            case ORDER_COUNTS -> once(order, type, () -> foodService.adjustOrderCounts(foodIds(order), 1));
+            case SOLD_COUNT -> once(order, type, () -> foodService.increaseSoldCounts(soldQuantities(order)));
+            case CLEAR_CART -> cartRepository.deleteByUserId(order.getUserId());
+            case CONFIRMATION_EMAIL -> {
+                Context context = new Context();
+                context.setVariable("order", order);
+                emailService.sendOrderEmail(
+                        order.getEmail(),
+                        "Your Order Confirmation - " + order.getId(),
+                        templateEngine.process("order-success-email", context)
+                );
+            }
+        }
+    }
+
+    // the marker is given up again only when the increment itself failed, so
+    // the retry of a partly successful run does not apply it a second time
+    private void once(OrderEntity order, OutboxEventType type, Runnable increment) {
+        String marker = "paidEffectsApplied." + type;
+        boolean claimed = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(order.getId()).and(marker).ne(true)),
+                new Update().set(marker, true),
+                OrderEntity.class
+        ).getModifiedCount() > 0;
+        if (!claimed) return;
+
+        try {
+            increment.run();
+        } catch (RuntimeException e) {
+            mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(order.getId())),
+                    new Update().unset(marker),
+                    OrderEntity.class);
+            throw e;
+        }
+    }
+
+    private static Map<String, Integer> soldQuantities(OrderEntity order) {
+        Map<String, Integer> sold = new HashMap<>();
+        if (order.getOrderedItems() == null) return sold;
+        for (OrderItem item : order.getOrderedItems()) {
+            if ("FOOD".equalsIgnoreCase(item.getType()) && item.getFoodId() != null && item.getQuantity() != null) {
+                sold.merge(item.getFoodId(), item.getQuantity(), Integer::sum);
+            }
+        }
+        return sold;
+    }
+
+    private static Set<String> foodIds(OrderEntity order) {
+        if (order.getOrderedItems() == null) return Set.of();
+        return order.getOrderedItems().stream()
+                .filter(i -> "FOOD".equalsIgnoreCase(i.getType()) && i.getFoodId() != null)
+                .map(OrderItem::getFoodId)
+                .collect(Collectors.toSet());
+    }
+}
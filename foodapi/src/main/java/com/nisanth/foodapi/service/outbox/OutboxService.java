@@ -0,0 +1,266 @@
+package com.nisanth.foodapi.service.outbox;
+
+import com.nisanth.foodapi.entity.OrderEntity;
+import com.nisanth.foodapi.entity.OutboxEventEntity;
+import com.nisanth.foodapi.enumeration.OutboxEventType;
+import com.nisanth.foodapi.enumeration.OutboxStatus;
+import com.nisanth.foodapi.repository.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Outbox for the side effects of a paid order.
+ *
+ * verifyPayment flips the order to paid and sets {@code paidEffectsPending}
+ * in one update, then calls {@link #enqueue(String)}, which writes one
+ * {@link OutboxEventEntity} per {@link OutboxEventType} (ids are
+ * {@code orderId:type}, so re-enqueueing is harmless) and clears the flag.
+ * A sweep re-enqueues flagged orders whose enqueue never happened, so a
+ * crash between the two steps loses nothing; it reads a partial index that
+ * holds only the flagged orders.
+ *
+ * A dispatcher claims due events and runs them on a small worker pool.
+ * Failures are retried with exponential backoff; after
+ * {@code outbox.max-attempts} an event is parked as DEAD until an admin
+ * retries it. SMTP or Mongo trouble therefore never fails /verify itself.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private static final int CLAIM_BATCH = 50;
+
+    private final MongoTemplate mongoTemplate;
+    private final OrderRepository orderRepository;
+    private final OrderPaidEffects orderPaidEffects;
+
+    @Value("${outbox.workers:4}")
+    private int workers;
+
+    @Value("${outbox.poll:PT1S}")
+    private Duration poll;
+
+    // a claimed event that has not finished after this is picked up again
+    @Value("${outbox.lease:PT2M}")
+    private Duration lease;
+
+    @Value("${outbox.retry-delay:PT10S}")
+    private Duration retryDelay;
+
+    @Value("${outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${outbox.retention:P7D}")
+    private Duration retention;
+
+    private ScheduledExecutorService dispatcher;
+    private ExecutorService pool;
+    private Semaphore slots;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        indexPending();
+
+        pool = Executors.newFixedThreadPool(workers, daemon("outbox-worker"));
+        slots = new Semaphore(workers);
+        dispatcher = Executors.newSingleThreadScheduledExecutor(daemon("outbox-dispatcher"));
+
+        long millis = Math.max(1, poll.toMillis());
+        dispatcher.scheduleWithFixedDelay(this::dispatch, 0, millis, TimeUnit.MILLISECONDS);
+        dispatcher.scheduleWithFixedDelay(this::sweepPending, 1, 1, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (dispatcher != null) dispatcher.shutdownNow();
+        if (pool != null) {
+            pool.shutdown();
+            try {
+                pool.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // ------------------- ENQUEUE -------------------
+
+    /** Write the paid-order events of this order and wake the dispatcher. */
+    public void enqueue(String orderId) {
+        Date now = new Date();
+        BulkOperations insert = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OutboxEventEntity.class);
+        for (OutboxEventType type : OutboxEventType.values()) {
+            insert.insert(OutboxEventEntity.builder()
+                    .id(orderId + ":" + type)
+                    .orderId(orderId)
+                    .type(type)
+                    .status(OutboxStatus.PENDING)
+                    .nextAttemptAt(now)
+                    .createdAt(now)
+                    .build());
+        }
+        try {
+            insert.execute();
+        } catch (BulkOperationException e) {
+            // events already written by an earlier enqueue are fine; anything else is not
+            boolean onlyDuplicates = e.getErrors().stream().allMatch(err -> err.getCode() == 11000);
+            if (!onlyDuplicates) throw e;
+        }
+
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(orderId)),
+                new Update().unset("paidEffectsPending"),
+                OrderEntity.class);
+
+        if (dispatcher != null) dispatcher.execute(this::dispatch);
+    }
+
+    // the sweep runs every minute: index just the flagged orders. Orders saved
+    // whole while the flag was a primitive carry false, which would only bloat it
+    private void indexPending() {
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("paidEffectsPending").is(false)),
+                new Update().unset("paidEffectsPending"),
+                OrderEntity.class);
+        mongoTemplate.indexOps(OrderEntity.class).ensureIndex(new Index()
+                .on("paidEffectsPending", Sort.Direction.ASC)
+                .named("paid_effects_pending")
+                .partial(PartialIndexFilter.of(Criteria.where("paidEffectsPending").is(true))));
+    }
+
+    // orders flipped to paid whose enqueue did not happen (crash, Mongo hiccup)
+    private void sweepPending() {
+        try {
+            Query flagged = Query.query(Criteria.where("paidEffectsPending").is(true));
+            flagged.fields().include("_id");
+            for (OrderEntity order : mongoTemplate.find(flagged, OrderEntity.class)) {
+                enqueue(order.getId());
+            }
+        } catch (Exception e) {
+            System.out.println("Outbox sweep failed: " + e.getMessage());
+        }
+    }
+
+    // ------------------- DISPATCH -------------------
+
+    private void dispatch() {
+        try {
+            while (slots.tryAcquire()) {
+                OutboxEventEntity event = claim();
+                if (event == null) {
+                    slots.release();
+                    return;
+                }
+                pool.execute(() -> {
+                    try {
+                        run(event);
+                    } finally {
+                        slots.release();
+                    }
+                });
+            }
+        } catch (Exception e) {
+            System.out.println("Outbox dispatch failed: " + e.getMessage());
+        }
+    }
+
+    // next due event, pushed out by the lease so no other dispatcher takes it meanwhile
+    private OutboxEventEntity claim() {
+        Date now = new Date();
+        Query due = Query.query(Criteria.where("status").is(OutboxStatus.PENDING).and("nextAttemptAt").lte(now))
+                .with(Sort.by("nextAttemptAt"));
+        return mongoTemplate.findAndModify(
+                due,
+                new Update()
+                        .set("nextAttemptAt", new Date(now.getTime() + lease.toMillis()))
+                        .inc("attempts", 1),
+                FindAndModifyOptions.options().returnNew(true),
+                OutboxEventEntity.class);
+    }
+
+    private void run(OutboxEventEntity event) {
+        try {
+            OrderEntity order = orderRepository.findById(event.getOrderId()).orElse(null);
+            if (order != null) orderPaidEffects.apply(event.getType(), order);
+
+            Date now = new Date();
+            mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(event.getId())),
+                    new Update()
+                            .set("status", OutboxStatus.DONE)
+                            .set("completedAt", now)
+                            .set("purgeAt", new Date(now.getTime() + retention.toMillis()))
+                            .unset("lastError"),
+                    OutboxEventEntity.class);
+        } catch (Exception e) {
+            fail(event, e);
+        }
+    }
+
+    private void fail(OutboxEventEntity event, Exception e) {
+        String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        Update update = new Update().set("lastError", error);
+
+        if (event.getAttempts() >= maxAttempts) {
+            update.set("status", OutboxStatus.DEAD);
+            System.out.println("☠️ Outbox event " + event.getId() + " dead after " + event.getAttempts() + " attempts: " + error);
+        } else {
+            // 10s, 20s, 40s ... capped at an hour
+            long delay = Math.min(retryDelay.toMillis() << Math.min(event.getAttempts() - 1, 20), 3_600_000L);
+            update.set("nextAttemptAt", new Date(System.currentTimeMillis() + delay));
+        }
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(event.getId())), update, OutboxEventEntity.class);
+    }
+
+    // ------------------- ADMIN -------------------
+
+    /** Give every DEAD event a fresh set of attempts. */
+    public long retryDead() {
+        long revived = mongoTemplate.updateMulti(
+                Query.query(Criteria.where("status").is(OutboxStatus.DEAD)),
+                new Update()
+                        .set("status", OutboxStatus.PENDING)
+                        .set("attempts", 0)
+                        .set("nextAttemptAt", new Date()),
+                OutboxEventEntity.class
+        ).getModifiedCount();
+        if (revived > 0 && dispatcher != null) dispatcher.execute(this::dispatch);
+        return revived;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (OutboxStatus status : OutboxStatus.values()) {
+            stats.put(status.name().toLowerCase(Locale.ROOT), mongoTemplate.count(
+                    Query.query(Criteria.where("status").is(status)), OutboxEventEntity.class));
+        }
+        stats.put("busyWorkers", slots != null ? workers - slots.availablePermits() : 0);
+        return stats;
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
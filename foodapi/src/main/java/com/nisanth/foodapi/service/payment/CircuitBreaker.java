@@ -0,0 +1,81 @@
+package com.nisanth.foodapi.service.payment;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Consecutive-failure circuit breaker.
+ *
+ * After {@code threshold} failures in a row calls are refused for
+ * {@code openFor}; then a single trial call is let through, and its outcome
+ * closes the breaker again or re-opens it.
+ */
+class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int threshold;
+    private final long openForMillis;
+    private final LongSupplier clock;
+
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    CircuitBreaker(int threshold, Duration openFor) {
+        this(threshold, openFor, System::currentTimeMillis);
+    }
+
+    // clock in epoch millis; tests drive it by hand
+    CircuitBreaker(int threshold, Duration openFor, LongSupplier clock) {
+        this.threshold = Math.max(1, threshold);
+        this.openForMillis = openFor.toMillis();
+        this.clock = clock;
+    }
+
+    /** @return whether a call may go out now */
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= openForMillis) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (trialInFlight) yield false;
+                trialInFlight = true;
+                yield true;
+            }
+        };
+    }
+
+    synchronized void onSuccess() {
+        state = State.CLOSED;
+        failures = 0;
+        trialInFlight = false;
+    }
+
+    synchronized void onFailure() {
+        failures++;
+        if (state == State.HALF_OPEN || failures >= threshold) {
+            state = State.OPEN;
+            openedAt = clock.getAsLong();
+            trialInFlight = false;
+        }
+    }
+
+    /** The call was abandoned without an outcome (e.g. interrupted): free the trial slot. */
+    synchronized void release() {
+        trialInFlight = false;
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    synchronized int failures() {
+        return failures;
+    }
+}
@@ -0,0 +1,26 @@
+package com.nisanth.foodapi.service.payment;
+
+import com.nisanth.foodapi.entity.Setting;
+
+import java.util.Map;
+
+/**
+ * Creates the payment-side order a checkout is paid against.
+ *
+ * {@code payment.gateway=razorpay} (default) talks to Razorpay;
+ * {@code payment.gateway=stub} answers in-process, for tests and load runs.
+ * Failures surface as {@link org.springframework.web.server.ResponseStatusException}s
+ * (502 for a gateway error, 503 when the gateway is slow or switched off by
+ * its circuit breaker).
+ */
+public interface PaymentGateway {
+
+    /**
+     * @param settings     merchant credentials (razorpayKey / razorpaySecret)
+     * @param amountPaise  amount in the currency's smallest unit
+     * @return the gateway's order id
+     */
+    String createOrder(Setting settings, long amountPaise, String currency);
+
+    Map<String, Object> stats();
+}
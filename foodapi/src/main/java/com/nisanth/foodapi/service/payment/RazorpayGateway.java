@@ -0,0 +1,172 @@
+package com.nisanth.foodapi.service.payment;
+
+import com.nisanth.foodapi.entity.Setting;
+import com.razorpay.Order;
+import com.razorpay.RazorpayClient;
+import com.razorpay.RazorpayException;
+import jakarta.annotation.PreDestroy;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Razorpay-backed {@link PaymentGateway}.
+ *
+ * One client is kept and rebuilt only when the credentials in
+ * {@link Setting} change. Calls run on a small bounded pool and the request
+ * thread waits at most {@code payment.gateway.timeout}: the SDK hard-codes
+ * 60s socket timeouts, so the deadline is enforced here instead. A full pool
+ * or an open circuit breaker answers 503 straight away, so a slow Razorpay
+ * cannot tie up Tomcat threads. Only timeouts, network errors and 5xx
+ * answers count against the breaker; a 4xx means Razorpay is up and turned
+ * down this request.
+ */
+@Component
+@ConditionalOnProperty(name = "payment.gateway", havingValue = "razorpay", matchIfMissing = true)
+public class RazorpayGateway implements PaymentGateway {
+
+    private record Client(String key, String secret, RazorpayClient razorpay) {}
+
+    private final Duration timeout;
+    private final CircuitBreaker breaker;
+    private final ThreadPoolExecutor executor;
+
+    private volatile Client client;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    public RazorpayGateway(@Value("${payment.gateway.timeout:PT5S}") Duration timeout,
+                           @Value("${payment.gateway.max-concurrent:16}") int maxConcurrent,
+                           @Value("${payment.gateway.breaker.failures:5}") int breakerFailures,
+                           @Value("${payment.gateway.breaker.open-for:PT30S}") Duration breakerOpenFor) {
+        this.timeout = timeout;
+        this.breaker = new CircuitBreaker(breakerFailures, breakerOpenFor);
+        // no queue: when every worker is busy the caller is turned away instead of waiting
+        this.executor = new ThreadPoolExecutor(
+                maxConcurrent, maxConcurrent, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "razorpay-gateway");
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public String createOrder(Setting settings, long amountPaise, String currency) {
+        if (!breaker.tryAcquire()) {
+            rejected.incrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Payment service is temporarily unavailable, please try again shortly");
+        }
+        calls.incrementAndGet();
+
+        RazorpayClient razorpay;
+        try {
+            razorpay = client(settings);
+        } catch (RazorpayException e) {
+            breaker.release();   // building the client never reached Razorpay
+            errors.incrementAndGet();
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Payment gateway error: " + e.getMessage());
+        }
+
+        JSONObject orderRequest = new JSONObject();
+        orderRequest.put("amount", amountPaise);
+        orderRequest.put("currency", currency);
+        orderRequest.put("payment_capture", 1);
+
+        Future<Order> call;
+        try {
+            call = executor.submit(() -> razorpay.orders.create(orderRequest));
+        } catch (RejectedExecutionException e) {
+            // every worker is already waiting on Razorpay; that is our limit, not a Razorpay failure
+            breaker.release();
+            rejected.incrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Payment service is busy, please try again shortly");
+        }
+
+        try {
+            Order order = call.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            breaker.onSuccess();
+            return order.get("id");
+        } catch (TimeoutException e) {
+            call.cancel(true);
+            breaker.onFailure();
+            timeouts.incrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Payment service did not respond in time, please try again");
+        } catch (ExecutionException e) {
+            if (isRejection(e.getCause())) breaker.onSuccess();
+            else breaker.onFailure();
+            errors.incrementAndGet();
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY,
+                    "Payment gateway error: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            call.cancel(true);
+            breaker.release();   // says nothing about Razorpay, but a half-open trial must not stay taken
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Payment request interrupted");
+        }
+    }
+
+    // Razorpay answered with a 4xx: the SDK reports API errors as "CODE:description",
+    // and a bare error status as "Status Code: <n>"; network errors carry the IOException message
+    private static boolean isRejection(Throwable error) {
+        if (!(error instanceof RazorpayException) || error.getMessage() == null) return false;
+        String message = error.getMessage();
+        return message.startsWith("BAD_REQUEST_ERROR:") || message.startsWith("Status Code: 4");
+    }
+
+    // the cached client, rebuilt when the merchant credentials change
+    private RazorpayClient client(Setting settings) throws RazorpayException {
+        String key = settings.getRazorpayKey();
+        String secret = settings.getRazorpaySecret();
+
+        Client current = client;
+        if (current != null && Objects.equals(current.key(), key) && Objects.equals(current.secret(), secret)) {
+            return current.razorpay();
+        }
+        synchronized (this) {
+            current = client;
+            if (current == null || !Objects.equals(current.key(), key) || !Objects.equals(current.secret(), secret)) {
+                current = new Client(key, secret, new RazorpayClient(key, secret));
+                client = current;
+            }
+            return current.razorpay();
+        }
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("gateway", "razorpay");
+        stats.put("breaker", breaker.state().name());
+        stats.put("consecutiveFailures", breaker.failures());
+        stats.put("inFlight", executor.getActiveCount());
+        stats.put("calls", calls.get());
+        stats.put("timeouts", timeouts.get());
+        stats.put("errors", errors.get());
+        stats.put("rejected", rejected.get());
+        return stats;
+    }
+}
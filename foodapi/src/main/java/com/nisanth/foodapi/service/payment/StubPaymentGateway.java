@@ -0,0 +1,48 @@
+package com.nisanth.foodapi.service.payment;
+
+import com.nisanth.foodapi.entity.Setting;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process {@link PaymentGateway} for tests and load runs
+ * ({@code payment.gateway=stub}). Hands out fake order ids after an optional
+ * simulated latency; never use it with real customers.
+ */
+@Component
+@ConditionalOnProperty(name = "payment.gateway", havingValue = "stub")
+public class StubPaymentGateway implements PaymentGateway {
+
+    @Value("${payment.gateway.stub.latency:PT0S}")
+    private Duration latency;
+
+    private final AtomicLong calls = new AtomicLong();
+
+    @Override
+    public String createOrder(Setting settings, long amountPaise, String currency) {
+        calls.incrementAndGet();
+        if (!latency.isZero()) {
+            try {
+                Thread.sleep(latency.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return "order_stub_" + UUID.randomUUID().toString().replace("-", "").substring(0, 14);
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("gateway", "stub");
+        stats.put("calls", calls.get());
+        return stats;
+    }
+}
@@ -0,0 +1,167 @@
+package com.nisanth.foodapi.service.timeline;
+
+import com.nisanth.foodapi.entity.OrderTimelineBucketEntity;
+import com.nisanth.foodapi.io.order.TimelinePage;
+import com.nisanth.foodapi.io.util.DeliveryMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Delivery timelines, kept next to the order instead of inside it.
+ *
+ * Messages are pushed into the newest bucket of the order until it holds
+ * {@code order.timeline.bucket-size} of them; the next message opens bucket
+ * {@code seq + 1}, whose id ({@code orderId:seq}) makes sure two writers
+ * can't both open it. Appends are a single {@code $push} (or insert) and
+ * never rewrite the order document.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderTimelineService {
+
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${order.timeline.bucket-size:50}")
+    private int bucketSize;
+
+    // ------------------- APPEND -------------------
+
+    public void append(String orderId, String message, String actor, String reason) {
+        append(orderId, DeliveryMessage.builder()
+                .message(message)
+                .timestamp(LocalDateTime.now())
+                .actor(actor)
+                .reason(reason)
+                .build());
+    }
+
+    public void append(String orderId, DeliveryMessage message) {
+        if (message.getTimestamp() == null) message.setTimestamp(LocalDateTime.now());
+
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            OrderTimelineBucketEntity last = lastBucket(orderId);
+
+            if (last != null && last.getCount() < bucketSize) {
+                long pushed = mongoTemplate.updateFirst(
+                        Query.query(Criteria.where("_id").is(last.getId()).and("count").lt(bucketSize)),
+                        new Update().push("messages", message).inc("count", 1).set("lastAt", new Date()),
+                        OrderTimelineBucketEntity.class
+                ).getModifiedCount();
+                if (pushed > 0) return;
+            }
+
+            // newest bucket is full (or there is none yet): open the next one
+            int seq = last != null ? last.getSeq() + 1 : 0;
+            try {
+                mongoTemplate.insert(bucket(orderId, seq, List.of(message)));
+                return;
+            } catch (DuplicateKeyException e) {
+                // another writer opened it first; push into theirs
+            }
+        }
+        throw new RuntimeException("Could not append to the timeline of order " + orderId);
+    }
+
+    /**
+     * Store messages that used to live on the order document in buckets
+     * numbered below 0, so they sort before anything appended since. Safe to
+     * run again for the same order: buckets that already exist are skipped.
+     */
+    public void importLegacy(String orderId, List<DeliveryMessage> messages) {
+        if (messages == null || messages.isEmpty()) return;
+
+        int buckets = (messages.size() + bucketSize - 1) / bucketSize;
+        for (int i = 0; i < buckets; i++) {
+            List<DeliveryMessage> chunk = messages.subList(i * bucketSize, Math.min(messages.size(), (i + 1) * bucketSize));
+            try {
+                mongoTemplate.insert(bucket(orderId, i - buckets, new ArrayList<>(chunk)));
+            } catch (DuplicateKeyException e) {
+                // moved on an earlier run
+            }
+        }
+    }
+
+    // ------------------- READ -------------------
+
+    /** The last {@code limit} messages of the order, oldest first (what the detail view shows). */
+    public List<DeliveryMessage> recent(String orderId, int limit) {
+        Query query = Query.query(Criteria.where("orderId").is(orderId))
+                .with(Sort.by(Sort.Direction.DESC, "seq"))
+                .limit(limit / Math.max(1, bucketSize) + 2);
+
+        Deque<DeliveryMessage> recent = new ArrayDeque<>();
+        for (OrderTimelineBucketEntity bucket : mongoTemplate.find(query, OrderTimelineBucketEntity.class)) {
+            List<DeliveryMessage> messages = bucket.getMessages();
+            for (int i = messages.size() - 1; i >= 0 && recent.size() < limit; i--) {
+                recent.addFirst(messages.get(i));
+            }
+            if (recent.size() >= limit) break;
+        }
+        return new ArrayList<>(recent);
+    }
+
+    /** One bucket, newest first; the cursor is the seq of the bucket returned last. */
+    public TimelinePage page(String orderId, String cursor) {
+        Criteria criteria = Criteria.where("orderId").is(orderId);
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                criteria = criteria.and("seq").lt(Integer.parseInt(cursor));
+            } catch (NumberFormatException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+        }
+
+        // the second bucket only tells us whether there is an older page
+        List<OrderTimelineBucketEntity> buckets = mongoTemplate.find(
+                Query.query(criteria).with(Sort.by(Sort.Direction.DESC, "seq")).limit(2),
+                OrderTimelineBucketEntity.class);
+        if (buckets.isEmpty()) return new TimelinePage(List.of(), null, false);
+
+        OrderTimelineBucketEntity bucket = buckets.get(0);
+        boolean hasMore = buckets.size() > 1;
+        return new TimelinePage(bucket.getMessages(), hasMore ? String.valueOf(bucket.getSeq()) : null, hasMore);
+    }
+
+    public boolean contains(String orderId, String message) {
+        return mongoTemplate.exists(
+                Query.query(Criteria.where("orderId").is(orderId).and("messages.message").is(message)),
+                OrderTimelineBucketEntity.class);
+    }
+
+    // ------------------- HELPERS -------------------
+
+    private OrderTimelineBucketEntity lastBucket(String orderId) {
+        Query query = Query.query(Criteria.where("orderId").is(orderId))
+                .with(Sort.by(Sort.Direction.DESC, "seq"))
+                .limit(1);
+        query.fields().include("seq").include("count");
+        return mongoTemplate.findOne(query, OrderTimelineBucketEntity.class);
+    }
+
+    private static OrderTimelineBucketEntity bucket(String orderId, int seq, List<DeliveryMessage> messages) {
+        Date now = new Date();
+        return OrderTimelineBucketEntity.builder()
+                .id(orderId + ":" + seq)
+                .orderId(orderId)
+                .seq(seq)
+                .count(messages.size())
+                .messages(new ArrayList<>(messages))
+                .firstAt(now)
+                .lastAt(now)
+                .build();
+    }
+}
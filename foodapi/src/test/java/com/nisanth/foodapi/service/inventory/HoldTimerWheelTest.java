@@ -0,0 +1,113 @@
+package com.nisanth.foodapi.service.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HoldTimerWheelTest {
+
+    private static final long START = 1_000_000L;
+
+    private final AtomicLong clock = new AtomicLong(START);
+    private final List<String> expired = new ArrayList<>();
+    private final HoldTimerWheel wheel = new HoldTimerWheel(Duration.ofSeconds(1), 8, expired::add, clock::get);
+
+    @Test
+    void firesOnceTheDeadlineTickIsReached() {
+        wheel.schedule("a", Instant.ofEpochMilli(START + 3_000));
+
+        advanceTo(START + 2_000);
+        assertThat(expired).isEmpty();
+
+        advanceTo(START + 3_000);
+        assertThat(expired).containsExactly("a");
+        assertThat(wheel.pending()).isZero();
+
+        advanceTo(START + 4_000);
+        assertThat(expired).containsExactly("a");
+    }
+
+    @Test
+    void cancelledKeysNeverFire() {
+        wheel.schedule("a", Instant.ofEpochMilli(START + 2_000));
+        wheel.cancel("a");
+
+        advanceTo(START + 5_000);
+        assertThat(expired).isEmpty();
+        assertThat(wheel.pending()).isZero();
+    }
+
+    @Test
+    void reschedulingMovesTheDeadline() {
+        wheel.schedule("a", Instant.ofEpochMilli(START + 2_000));
+        wheel.schedule("a", Instant.ofEpochMilli(START + 5_000));
+
+        advanceTo(START + 4_000);
+        assertThat(expired).isEmpty();
+
+        advanceTo(START + 5_000);
+        assertThat(expired).containsExactly("a");
+    }
+
+    @Test
+    void deadlinesBeyondOneRevolutionWaitForTheirTick() {
+        // 8 slots of 1s: 10s lands in the same slot as 2s
+        wheel.schedule("far", Instant.ofEpochMilli(START + 10_000));
+
+        advanceTo(START + 9_000);
+        assertThat(expired).isEmpty();
+
+        advanceTo(START + 10_000);
+        assertThat(expired).containsExactly("far");
+    }
+
+    @Test
+    void missedTicksAreCaughtUpInOneCall() {
+        wheel.schedule("a", Instant.ofEpochMilli(START + 2_000));
+        wheel.schedule("b", Instant.ofEpochMilli(START + 4_000));
+        wheel.schedule("c", Instant.ofEpochMilli(START + 20_000));
+
+        clock.set(START + 6_000);
+        wheel.tick();
+
+        assertThat(expired).containsExactly("a", "b");
+        assertThat(wheel.pending()).isEqualTo(1);
+    }
+
+    @Test
+    void pastDeadlinesFireOnTheNextTick() {
+        wheel.schedule("late", Instant.ofEpochMilli(START - 60_000));
+
+        advanceTo(START + 1_000);
+        assertThat(expired).containsExactly("late");
+    }
+
+    @Test
+    void failedExpiryIsRetriedLater() {
+        List<String> attempts = new ArrayList<>();
+        HoldTimerWheel failing = new HoldTimerWheel(Duration.ofSeconds(1), 8, key -> {
+            attempts.add(key);
+            if (attempts.size() == 1) throw new IllegalStateException("mongo down");
+        }, clock::get);
+        failing.schedule("a", Instant.ofEpochMilli(START + 1_000));
+
+        clock.set(START + 1_000);
+        failing.tick();
+        assertThat(attempts).containsExactly("a");
+        assertThat(failing.pending()).isEqualTo(1);
+    }
+
+    // one tick call per second, like the ticker thread
+    private void advanceTo(long millis) {
+        while (clock.get() < millis) {
+            clock.addAndGet(1_000);
+            wheel.tick();
+        }
+    }
+}
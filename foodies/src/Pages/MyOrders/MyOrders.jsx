@@ -1,4 +1,4 @@
-import React, { useContext, useEffect, useState, useMemo } from "react";
+import React, { useContext, useEffect, useState, useMemo, useRef } from "react";
 import { StoreContext } from "../../Context/StoreContext";
 import { assets } from "../../assets/assets";
 import "./MyOrders.css";
@@ -14,7 +14,14 @@ const MyOrders = () => {
   const { token } = useContext(StoreContext);
   const navigate = useNavigate();
 
-  const [data, setData] = useState([]);
+  const [latest, setLatest] = useState([]);
+  const [older, setOlder] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
+  const olderLoaded = useRef(false);   // the poll must not reset the cursor once older pages are shown
+  const data = useMemo(() => {
+    const seen = new Set(latest.map((o) => o.id));
+    return [...latest, ...older.filter((o) => !seen.has(o.id))];
+  }, [latest, older]);
 
   // Filters
   const [statusFilter, setStatusFilter] = useState("All");
@@ -56,12 +63,31 @@ const MyOrders = () => {
   };
 
   // Load Orders
+  // the newest page is refreshed by the poll; older pages are appended on demand
   const fetchOrders = async () => {
     try {
       const response = await api.get("/api/orders/user", {
         headers: { Authorization: `Bearer ${token}` },
+        params: { size: 50 },
       });
-      setData(Array.isArray(response.data) ? response.data : []);
+      const page = response.data || {};
+      setLatest(Array.isArray(page.orders) ? page.orders : []);
+      if (!olderLoaded.current) setNextCursor(page.hasMore ? page.nextCursor : null);
+    } catch (err) {
+      console.error(err);
+    }
+  };
+
+  const loadOlderOrders = async () => {
+    try {
+      const response = await api.get("/api/orders/user", {
+        headers: { Authorization: `Bearer ${token}` },
+        params: { cursor: nextCursor, size: 50 },
+      });
+      const page = response.data || {};
+      olderLoaded.current = true;
+      setOlder((prev) => [...prev, ...(page.orders || [])]);
+      setNextCursor(page.hasMore ? page.nextCursor : null);
     } catch (err) {
       console.error(err);
     }
@@ -504,6 +530,14 @@ const MyOrders = () => {
           </button>
         </div>
       )}
+
+      {nextCursor && (
+        <div className="text-center mt-3">
+          <button className="btn btn-outline-secondary btn-sm" onClick={loadOlderOrders}>
+            Load older orders
+          </button>
+        </div>
+      )}
     </div>
   );
 };
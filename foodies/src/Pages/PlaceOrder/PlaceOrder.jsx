@@ -1,4 +1,4 @@
-import React, { useContext, useState, useEffect } from "react";
+import React, { useContext, useState, useEffect, useRef } from "react";
 import { assets } from "../../assets/assets";
 import { StoreContext } from "../../Context/StoreContext";
 import { toast } from "react-toastify";
@@ -82,6 +82,18 @@ const finalTotal = Math.max(total - discount, 0);
 
   const [submitting, setSubmitting] = useState(false);
 
+  // one Idempotency-Key per checkout attempt, sent on /create and /verify,
+  // so a resent request gets the first answer back instead of a second order
+  const checkoutKey = useRef(null);
+  const newCheckoutKey = () =>
+    window.crypto?.randomUUID
+      ? window.crypto.randomUUID()
+      : `${Date.now()}-${Math.random().toString(36).slice(2)}`;
+  const orderHeaders = () => ({
+    ...(token ? { Authorization: `Bearer ${token}` } : {}),
+    "Idempotency-Key": checkoutKey.current,
+  });
+
   const onChangeHandler = (event) => {
     setData({ ...data, [event.target.name] : event.target.value });
   };
@@ -159,20 +171,23 @@ total: finalTotal,
     };
 
     setSubmitting(true);
+    if (!checkoutKey.current) checkoutKey.current = newCheckoutKey();
 
     let createdOrder = null;
     try {
       const res = await api.post("/api/orders/create", orderData, {
-        headers: token ? { Authorization: `Bearer ${token}` } : {},
+        headers: orderHeaders(),
       });
 
       if (res.status === 201 && res.data?.razorpayOrderId) {
         createdOrder = res.data;
         await initiateRazorpayPayment(res.data, createdOrder.id);
       } else {
+        checkoutKey.current = null;
         toast.error("Unable to place order");
       }
     } catch (error) {
+      checkoutKey.current = null;
       toast.error(error.response?.data?.message || "Order failed");
     } finally {
       setSubmitting(false);
@@ -185,6 +200,7 @@ total: finalTotal,
   const initiateRazorpayPayment = async (order, createdOrderId) => {
     const loaded = await loadRazorpayScript();
     if (!loaded) {
+      checkoutKey.current = null;
       toast.error("Payment gateway failed to load.");
       return;
     }
@@ -209,6 +225,7 @@ total: finalTotal,
 
       modal: {
         ondismiss: async function () {
+          checkoutKey.current = null;
           toast.error("Payment cancelled");
           if (createdOrderId) await deleteOrder(createdOrderId);
         },
@@ -224,8 +241,9 @@ total: finalTotal,
   const verifyPayment = async (razorpayResponse) => {
     try {
       const res = await api.post("/api/orders/verify", razorpayResponse, {
-        headers: token ? { Authorization: `Bearer ${token}` } : {},
+        headers: orderHeaders(),
       });
+      checkoutKey.current = null;
 
       if (res.status === 200) {
         toast.success("Payment successful!");
@@ -237,6 +255,7 @@ total: finalTotal,
         navigate("/");
       }
     } catch (err) {
+      checkoutKey.current = null;
       toast.error("Payment failed.");
       navigate("/");
     }